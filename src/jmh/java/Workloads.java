@@ -0,0 +1,215 @@
+import benchmarks.Workload;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Engine side of the JMH benchmarks in {@code benchmarks}: builds the measured operations on the default-package engine
+ * classes (see {@link Workload} for why this indirection exists). Everything a workload needs is prepared here, outside
+ * the measured call.
+ */
+public final class Workloads {
+    // random keys for the transposition table workloads, cycled through
+    private static final int KEYS = 1 << 16;
+
+    private Workloads() {
+    }
+
+    public static Workload create(String name, String fen, int depth, int threads) {
+        return switch (name) {
+            case "generateAllLegalMoves" -> {
+                Board board = new Board(fen);
+                yield bh -> bh.consume(MoveGenerator.generateAllLegalMoves(board));
+            }
+            case "generateAllLegalMovesPacked" -> {
+                Board board = new Board(fen);
+                MoveList moves = new MoveList();
+                yield bh -> {
+                    MoveGenerator.generateAllLegalMoves(board, moves);
+                    bh.consume(moves.size());
+                };
+            }
+            case "makeMove" -> {
+                // copy + makeMove, cycling through all legal moves of the position
+                Board board = new Board(fen);
+                List<MovePair> moves = MoveGenerator.generateAllLegalMoves(board);
+                int[] next = {0};
+                yield bh -> {
+                    MovePair move = moves.get(next[0]);
+                    next[0] = next[0] + 1 == moves.size() ? 0 : next[0] + 1;
+                    bh.consume(Board.makeMove(move, board.copy()));
+                };
+            }
+            case "doUndoMove" -> {
+                Board board = new Board(fen);
+                MoveList moves = new MoveList();
+                MoveGenerator.generateAllLegalMoves(board, moves);
+                int[] next = {0};
+                yield bh -> {
+                    board.doMove(moves.get(next[0]));
+                    bh.consume(board.getZobristHash());
+                    board.undoMove();
+                    next[0] = next[0] + 1 == moves.size() ? 0 : next[0] + 1;
+                };
+            }
+            case "copy" -> {
+                Board board = new Board(fen);
+                yield bh -> bh.consume(board.copy());
+            }
+            case "computeHash" -> {
+                Board board = new Board(fen);
+                yield bh -> bh.consume(ZobristHashing.computeHash(board));
+            }
+            case "evaluate" -> {
+                Board board = new Board(fen);
+                yield bh -> bh.consume(Eval.evaluate(board));
+            }
+            case "orderMoves" -> {
+                // orders in place, so every call starts again from the generation order
+                Board board = new Board(fen);
+                MoveList generated = new MoveList();
+                MoveGenerator.generateAllLegalMoves(board, generated);
+                MoveList moves = new MoveList();
+                boolean maximizing = board.getCurrentPlayer() == Player.RED;
+                yield bh -> {
+                    moves.clear();
+                    for (int i = 0; i < generated.size(); i++) {
+                        moves.add(generated.get(i));
+                    }
+                    MoveOrdering.orderMoves(moves, board, maximizing, 0);
+                    bh.consume(moves.get(0));
+                };
+            }
+            case "orderMovesStaged" -> {
+                Board board = new Board(fen);
+                MoveList generated = new MoveList();
+                MoveGenerator.generateAllLegalMoves(board, generated);
+                MoveList moves = new MoveList();
+                SearchContext ctx = new SearchContext(0);
+                yield bh -> {
+                    moves.clear();
+                    for (int i = 0; i < generated.size(); i++) {
+                        moves.add(generated.get(i));
+                    }
+                    MoveOrdering.orderMovesStaged(moves, board, PackedMove.NONE, 0, ctx);
+                    bh.consume(moves.get(0));
+                };
+            }
+            case "movePicker" -> {
+                // all moves of a node that never cuts off, in picking order
+                Board board = new Board(fen);
+                MovePicker picker = new MovePicker();
+                SearchContext ctx = new SearchContext(0);
+                yield bh -> {
+                    picker.reset(board, PackedMove.NONE, 0, ctx);
+                    for (int m = picker.next(); m != PackedMove.NONE; m = picker.next()) {
+                        bh.consume(m);
+                    }
+                };
+            }
+            case "movePickerTtMove" -> {
+                // a node the TT move cuts off: generating and ordering everything vs. picking only the TT move
+                Board board = new Board(fen);
+                MoveList generated = new MoveList();
+                MoveGenerator.generateAllLegalMoves(board, generated);
+                int ttMove = generated.get(generated.size() / 2);
+                MovePicker picker = new MovePicker();
+                SearchContext ctx = new SearchContext(0);
+                yield bh -> {
+                    picker.reset(board, ttMove, 0, ctx);
+                    bh.consume(picker.next());
+                };
+            }
+            case "orderMovesStagedTtMove" -> {
+                Board board = new Board(fen);
+                MoveList generated = new MoveList();
+                MoveGenerator.generateAllLegalMoves(board, generated);
+                int ttMove = generated.get(generated.size() / 2);
+                MoveList moves = new MoveList();
+                SearchContext ctx = new SearchContext(0);
+                yield bh -> {
+                    MoveGenerator.generateAllLegalMoves(board, moves);
+                    MoveOrdering.orderMovesStaged(moves, board, ttMove, 0, ctx);
+                    bh.consume(moves.get(0));
+                };
+            }
+            case "orderMovesList" -> {
+                Board board = new Board(fen);
+                List<MovePair> moves = MoveGenerator.generateAllLegalMoves(board);
+                boolean maximizing = board.getCurrentPlayer() == Player.RED;
+                yield bh -> bh.consume(MoveOrdering.orderMoves(moves, board, maximizing, 0));
+            }
+            case "hashMapStore" -> {
+                TranspositionTable tt = new TranspositionTable();
+                long[] keys = randomKeys();
+                int[] next = {0};
+                yield bh -> {
+                    int i = next[0]++ & (KEYS - 1);
+                    tt.store(keys[i], i, 1, TranspositionTable.EXACT_SCORE, null);
+                };
+            }
+            case "hashMapRetrieve" -> {
+                TranspositionTable tt = new TranspositionTable();
+                long[] keys = randomKeys();
+                for (long key : keys) tt.store(key, 0, 1, TranspositionTable.EXACT_SCORE, null);
+                int[] next = {0};
+                yield bh -> bh.consume(tt.retrieve(keys[next[0]++ & (KEYS - 1)]));
+            }
+            case "arrayStore" -> {
+                TranspositionTableArray tt = new TranspositionTableArray();
+                long[] keys = randomKeys();
+                int[] next = {0};
+                yield bh -> {
+                    int i = next[0]++ & (KEYS - 1);
+                    tt.store(keys[i], i, (short) 1, (byte) TranspositionTableArray.EXACT_SCORE, PackedMove.NONE);
+                };
+            }
+            case "arrayRetrieve" -> {
+                TranspositionTableArray tt = new TranspositionTableArray();
+                long[] keys = randomKeys();
+                for (long key : keys) tt.store(key, 0, (short) 1, (byte) TranspositionTableArray.EXACT_SCORE, PackedMove.NONE);
+                int[] next = {0};
+                // the search probes the packed entry, retrieve() only decodes it into a TTEntry on top
+                yield bh -> bh.consume(tt.probe(keys[next[0]++ & (KEYS - 1)]));
+            }
+            case "pickMoveTestVersion" -> new Workload() {
+                private final Board board = new Board(fen);
+
+                @Override
+                public void run(Blackhole bh) {
+                    bh.consume(AI.pickMoveTestVersion(board, depth));
+                }
+
+                @Override
+                public void reset() {
+                    AI.clearTT();
+                }
+            };
+            case "lazySmp", "ybwc" -> new Workload() {
+                // own searcher, so the thread count does not touch the default one
+                private final Searcher searcher = new Searcher(TranspositionTableArray.DEFAULT_SIZE_MB, threads);
+                private final Board board = new Board(fen);
+
+                {
+                    searcher.setVerbose(false);
+                }
+
+                @Override
+                public void run(Blackhole bh) {
+                    bh.consume(name.equals("ybwc") ? searcher.pickMoveYBWC(board, depth) : searcher.pickMoveTestVersion(board, depth));
+                }
+
+                @Override
+                public void reset() {
+                    searcher.clearTT();
+                }
+            };
+            default -> throw new IllegalArgumentException("unknown workload " + name);
+        };
+    }
+
+    private static long[] randomKeys() {
+        return new Random(42).longs(KEYS).toArray();
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speedup of the two parallel searches on the same fixed-depth search: Lazy SMP (shared transposition table, helpers
+ * deepen independently, pickMoveTestVersion) against Young Brothers Wait (split points on a ForkJoinPool, pickMoveYBWC).
+ * threads = 1 is the sequential baseline of both. Every invocation starts with an empty table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ParallelSearchBenchmark {
+
+    @Param({Positions.START, Positions.MIDGAME})
+    public String fen;
+
+    @Param({"4"})
+    public int depth;
+
+    @Param({"lazySmp", "ybwc"})
+    public String scheme;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private Workload search;
+
+    @Setup
+    public void setup() {
+        search = Workload.create(scheme, fen, depth, threads);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.reset();
+    }
+
+    @Benchmark
+    public void search(Blackhole bh) {
+        search.run(bh);
+    }
+}
@@ -0,0 +1,118 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-position hot paths: move generation, making moves, copying, hashing, evaluation and move ordering.
+ * Run with {@code -prof gc} to see the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-preview")
+public class PositionBenchmark {
+
+    @Param({Positions.START, Positions.OPENING, Positions.MIDGAME, Positions.TALL_TOWERS, Positions.ENDGAME})
+    public String fen;
+
+    private Workload generateAllLegalMoves;
+    private Workload generateAllLegalMovesPacked;
+    private Workload makeMove;
+    private Workload doUndoMove;
+    private Workload copy;
+    private Workload computeHash;
+    private Workload evaluate;
+    private Workload orderMoves;
+    private Workload orderMovesList;
+    private Workload orderMovesStaged;
+    private Workload orderMovesStagedTtMove;
+    private Workload movePicker;
+    private Workload movePickerTtMove;
+
+    @Setup
+    public void setup() {
+        generateAllLegalMoves = Workload.create("generateAllLegalMoves", fen, 0);
+        generateAllLegalMovesPacked = Workload.create("generateAllLegalMovesPacked", fen, 0);
+        makeMove = Workload.create("makeMove", fen, 0);
+        doUndoMove = Workload.create("doUndoMove", fen, 0);
+        copy = Workload.create("copy", fen, 0);
+        computeHash = Workload.create("computeHash", fen, 0);
+        evaluate = Workload.create("evaluate", fen, 0);
+        orderMoves = Workload.create("orderMoves", fen, 0);
+        orderMovesList = Workload.create("orderMovesList", fen, 0);
+        orderMovesStaged = Workload.create("orderMovesStaged", fen, 0);
+        orderMovesStagedTtMove = Workload.create("orderMovesStagedTtMove", fen, 0);
+        movePicker = Workload.create("movePicker", fen, 0);
+        movePickerTtMove = Workload.create("movePickerTtMove", fen, 0);
+    }
+
+    @Benchmark
+    public void generateAllLegalMoves(Blackhole bh) {
+        generateAllLegalMoves.run(bh);
+    }
+
+    @Benchmark
+    public void generateAllLegalMovesPacked(Blackhole bh) {
+        generateAllLegalMovesPacked.run(bh);
+    }
+
+    @Benchmark
+    public void makeMove(Blackhole bh) {
+        makeMove.run(bh);
+    }
+
+    @Benchmark
+    public void doUndoMove(Blackhole bh) {
+        doUndoMove.run(bh);
+    }
+
+    @Benchmark
+    public void copy(Blackhole bh) {
+        copy.run(bh);
+    }
+
+    @Benchmark
+    public void computeHash(Blackhole bh) {
+        computeHash.run(bh);
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole bh) {
+        evaluate.run(bh);
+    }
+
+    @Benchmark
+    public void orderMoves(Blackhole bh) {
+        orderMoves.run(bh);
+    }
+
+    @Benchmark
+    public void orderMovesList(Blackhole bh) {
+        orderMovesList.run(bh);
+    }
+
+    @Benchmark
+    public void orderMovesStaged(Blackhole bh) {
+        orderMovesStaged.run(bh);
+    }
+
+    @Benchmark
+    public void orderMovesStagedTtMove(Blackhole bh) {
+        orderMovesStagedTtMove.run(bh);
+    }
+
+    @Benchmark
+    public void movePicker(Blackhole bh) {
+        movePicker.run(bh);
+    }
+
+    @Benchmark
+    public void movePickerTtMove(Blackhole bh) {
+        movePickerTtMove.run(bh);
+    }
+}
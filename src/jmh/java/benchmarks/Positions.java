@@ -0,0 +1,15 @@
+package benchmarks;
+
+/**
+ * Fixed FEN corpus for the benchmarks (constants, so they can be used in {@code @Param}).
+ */
+public final class Positions {
+    public static final String START = "r1r11RG1r1r1/2r11r12/3r13/7/3b13/2b11b12/b1b11BG1b1b1 r";
+    public static final String OPENING = "r1r11RG3/6r1/3r11r21/7/3b23/1b15/b12BG1b1b1 b";
+    public static final String MIDGAME = "3RG3/2r11r12/1r21r11r21/7/3b33/2b11b12/1b21BG3 b";
+    public static final String TALL_TOWERS = "3RG1r21/7/3r22r3/7/3b53/7/1b21BG3 b";
+    public static final String ENDGAME = "7/1b44b3/7/2BG4/3r13/2r1RG3/7 r";
+
+    private Positions() {
+    }
+}
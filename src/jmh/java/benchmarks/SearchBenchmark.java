@@ -0,0 +1,52 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth search with AI.pickMoveTestVersion. The transposition table is cleared before every invocation so each
+ * search starts cold; the search's console output is discarded while measuring.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class SearchBenchmark {
+
+    @Param({Positions.START, Positions.MIDGAME, Positions.ENDGAME})
+    public String fen;
+
+    @Param({"2", "3"})
+    public int depth;
+
+    private Workload search;
+    private PrintStream stdout;
+
+    @Setup
+    public void setup() {
+        search = Workload.create("pickMoveTestVersion", fen, depth);
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.reset();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public void pickMoveTestVersion(Blackhole bh) {
+        search.run(bh);
+    }
+}
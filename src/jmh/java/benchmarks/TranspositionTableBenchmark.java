@@ -0,0 +1,52 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store and probe cost of the HashMap based TranspositionTable and the array based TranspositionTableArray, on a fixed
+ * set of random keys (replaces the hand-rolled timing in TTBenchmark).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-preview")
+public class TranspositionTableBenchmark {
+
+    private Workload hashMapStore;
+    private Workload hashMapRetrieve;
+    private Workload arrayStore;
+    private Workload arrayRetrieve;
+
+    @Setup
+    public void setup() {
+        hashMapStore = Workload.create("hashMapStore", null, 0);
+        hashMapRetrieve = Workload.create("hashMapRetrieve", null, 0);
+        arrayStore = Workload.create("arrayStore", null, 0);
+        arrayRetrieve = Workload.create("arrayRetrieve", null, 0);
+    }
+
+    @Benchmark
+    public void hashMapStore(Blackhole bh) {
+        hashMapStore.run(bh);
+    }
+
+    @Benchmark
+    public void hashMapRetrieve(Blackhole bh) {
+        hashMapRetrieve.run(bh);
+    }
+
+    @Benchmark
+    public void arrayStore(Blackhole bh) {
+        arrayStore.run(bh);
+    }
+
+    @Benchmark
+    public void arrayRetrieve(Blackhole bh) {
+        arrayRetrieve.run(bh);
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * One measured engine operation. The engine classes live in the default package, which JMH does not accept for benchmark
+ * classes and which cannot be imported from a named package. The benchmarks therefore get their workloads from the
+ * default-package class {@code Workloads} (src/jmh/java), looked up by reflection once per trial; the measured call is a
+ * plain interface call.
+ */
+public interface Workload {
+
+    void run(Blackhole bh);
+
+    /**
+     * Called before every invocation by benchmarks that need a fresh engine state (e.g. an empty transposition table).
+     */
+    default void reset() {
+    }
+
+    /**
+     * @param name  workload name, see {@code Workloads.create}
+     * @param fen   position the workload runs on, ignored by the transposition table workloads
+     * @param depth search depth, only used by the search workload
+     */
+    static Workload create(String name, String fen, int depth) {
+        return create(name, fen, depth, 1);
+    }
+
+    /**
+     * @param threads search threads, only used by the parallel search workloads
+     */
+    static Workload create(String name, String fen, int depth, int threads) {
+        try {
+            return (Workload) Class.forName("Workloads")
+                    .getMethod("create", String.class, String.class, int.class, int.class)
+                    .invoke(null, name, fen, depth, threads);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("cannot create workload " + name, e);
+        }
+    }
+}
@@ -9,6 +9,34 @@ public class Board {
     // a Tower with three pieces has "1" entries in Stacks 0,1,2 and "0" entries in all Stacks above
     private long[] stacks = {0L, 0L, 0L, 0L, 0L, 0L, 0L};
     private Player currentPlayer;
+    // Zobrist key of this position, kept up to date by applyMove instead of being recomputed per node.
+    // Constructors and setters only mark it stale; it is computed in full on first use.
+    private long zobristHash;
+    private boolean hashValid;
+    // Material, tower levels, center and guard progress of the evaluation (Red – Blue, see Eval#pieceSquareScore),
+    // kept up to date by applyMove in the same way as the hash.
+    private int pieceSquareScore;
+    private boolean scoreValid;
+
+    // Undo stack for doMove/undoMove: one fixed-size entry (guards, blue, red, 7 stacks, side to move, hash, piece-square
+    // score) per ply
+    private static final int MAX_UNDO = 256;
+    private static final int UNDO_ENTRY_SIZE = 3 + BOARD_SIZE + 3;
+    private long[] undoStack;
+    private int undoTop;
+
+    /**
+     * Value of a guard in {@link #staticExchange(int)}, in stones: more than all towers together, losing it loses the game.
+     */
+    public static final int SEE_GUARD_VALUE = 100;
+    // per ray (N, S, E, W seen from the target): nearest square, its distance and remaining height; then the swap list
+    private static final int SEE_RAY_SQUARE = 0;
+    private static final int SEE_RAY_DISTANCE = 4;
+    private static final int SEE_RAY_HEIGHT = 8;
+    private static final int SEE_GAIN = 12;
+    private static final int SEE_SCRATCH_SIZE = SEE_GAIN + 64;
+    // work array of staticExchange, allocated on first use like the undo stack
+    private int[] seeScratch;
 
     /**
      * Constructor to create a specific Board according to Parameters
@@ -21,6 +49,21 @@ public class Board {
         this.currentPlayer = player;
     }
 
+    /**
+     * Copy constructor – copies the position only, the undo history is not shared.
+     */
+    private Board(Board other) {
+        this.guards = other.guards;
+        this.blue = other.blue;
+        this.red = other.red;
+        this.stacks = other.stacks.clone();
+        this.currentPlayer = other.currentPlayer;
+        this.zobristHash = other.zobristHash;
+        this.hashValid = other.hashValid;
+        this.pieceSquareScore = other.pieceSquareScore;
+        this.scoreValid = other.scoreValid;
+    }
+
     /**
      * Constructor to create the starting Board
      */
@@ -111,22 +154,39 @@ public class Board {
         this.stacks[3] = stacks[3] | stacks[4] | stacks[5] | stacks[6];
         this.stacks[4] = stacks[4] | stacks[5] | stacks[6];
         this.stacks[5] = stacks[5] | stacks[6];
+
+        // every stone (and guard) gives at most 4 moves, more than a MoveList holds can't come from a real game
+        for (long sideMask : new long[]{red, blue}) {
+            int pieces = 0;
+            for (long stack : stacks) pieces += Long.bitCount(stack & sideMask);
+            if (4 * pieces > MoveList.MAX_MOVES) {
+                throw new IllegalArgumentException("Zu viele Figuren für eine Seite im FEN: " + fen);
+            }
+        }
     }
 
     public void setGuards(long guards) {
         this.guards = guards;
+        this.hashValid = false;
+        this.scoreValid = false;
     }
 
     public void setBlue(long blue) {
         this.blue = blue;
+        this.hashValid = false;
+        this.scoreValid = false;
     }
 
     public void setRed(long red) {
         this.red = red;
+        this.hashValid = false;
+        this.scoreValid = false;
     }
 
     public void setStack(int i, long stack) {
         this.stacks[i] = stack;
+        this.hashValid = false;
+        this.scoreValid = false;
     }
 
     public Player getCurrentPlayer() {
@@ -135,6 +195,29 @@ public class Board {
 
     public void setCurrentPlayer(Player currentPlayer) {
         this.currentPlayer = currentPlayer;
+        this.hashValid = false;
+    }
+
+    /**
+     * @return the Zobrist key of the current position (same value as {@link ZobristHashing#computeHash(Board)})
+     */
+    public long getZobristHash() {
+        if (!hashValid) {
+            zobristHash = ZobristHashing.computeHash(this);
+            hashValid = true;
+        }
+        return zobristHash;
+    }
+
+    /**
+     * @return the incrementally updated part of the evaluation (same value as {@link Eval#pieceSquareScore(Board)})
+     */
+    public int getPieceSquareScore() {
+        if (!scoreValid) {
+            pieceSquareScore = Eval.pieceSquareScore(this);
+            scoreValid = true;
+        }
+        return pieceSquareScore;
     }
 
     public long getGuards() {
@@ -190,13 +273,9 @@ public class Board {
             playerMask = this.blue;
         }
 
+        // every stack layer holds one stone of each tower reaching it
         for (int i = 0; i < 7; i++) {
-            long colorStackI = stacks[i] & playerMask;
-            for (int j = 0; j < 49; j++) {
-                if (((colorStackI >>> j) & 1L) != 0) {
-                    numPiece += 1;
-                }
-            }
+            numPiece += Long.bitCount(stacks[i] & playerMask);
         }
         return numPiece;
     }
@@ -228,26 +307,111 @@ public class Board {
     }
 
     public static Board makeMove(MovePair move, Board board) {
-        long to = (1L << move.to());
+        board.applyMove(move.from(), move.to(), move.height());
+        return board;
+    }
+
+    /**
+     * Plays a move on this board in place and remembers everything needed to take it back again with
+     * {@link #undoMove()}. The search uses this pair instead of {@code makeMove(m, board.copy())} so that
+     * no Board has to be allocated per node.
+     *
+     * @param move the move to play for the current player
+     */
+    public void doMove(MovePair move) {
+        pushUndo();
+        applyMove(move.from(), move.to(), move.height());
+    }
+
+    /**
+     * Same as {@link #doMove(MovePair)} for a move in packed form (see {@link PackedMove}).
+     */
+    public void doMove(int move) {
+        pushUndo();
+        applyMove(PackedMove.from(move), PackedMove.to(move), PackedMove.height(move));
+    }
+
+    /**
+     * Passes the turn without moving (null move, used for null-move pruning). Taken back with {@link #undoMove()}.
+     */
+    public void doNullMove() {
+        pushUndo();
+        this.currentPlayer = this.currentPlayer == Player.BLUE ? Player.RED : Player.BLUE;
+        this.zobristHash ^= ZobristHashing.sideToMoveKey();
+    }
 
-        long from = (1L << move.from());
+    /**
+     * Takes back the last move played with {@link #doMove(MovePair)}.
+     */
+    public void undoMove() {
+        if (undoTop == 0) {
+            throw new IllegalStateException("undoMove without matching doMove");
+        }
+        undoTop--;
+        int base = undoTop * UNDO_ENTRY_SIZE;
+        this.guards = undoStack[base];
+        this.blue = undoStack[base + 1];
+        this.red = undoStack[base + 2];
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            this.stacks[i] = undoStack[base + 3 + i];
+        }
+        this.currentPlayer = undoStack[base + 3 + BOARD_SIZE] == 0L ? Player.BLUE : Player.RED;
+        this.zobristHash = undoStack[base + 4 + BOARD_SIZE];
+        this.hashValid = true;
+        this.pieceSquareScore = (int) undoStack[base + 5 + BOARD_SIZE];
+        this.scoreValid = true;
+    }
+
+    /**
+     * Saves guards, colour masks, stack layers, side to move, hash and piece-square score on the undo stack.
+     * The stack is only allocated the first time a Board is searched with doMove.
+     */
+    private void pushUndo() {
+        if (undoStack == null) {
+            undoStack = new long[MAX_UNDO * UNDO_ENTRY_SIZE];
+        }
+        if (undoTop == MAX_UNDO) {
+            throw new IllegalStateException("Undo stack overflow (more than " + MAX_UNDO + " moves deep)");
+        }
+        int base = undoTop * UNDO_ENTRY_SIZE;
+        undoStack[base] = this.guards;
+        undoStack[base + 1] = this.blue;
+        undoStack[base + 2] = this.red;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            undoStack[base + 3 + i] = this.stacks[i];
+        }
+        undoStack[base + 3 + BOARD_SIZE] = this.currentPlayer == Player.BLUE ? 0L : 1L;
+        undoStack[base + 4 + BOARD_SIZE] = getZobristHash();
+        undoStack[base + 5 + BOARD_SIZE] = getPieceSquareScore();
+        undoTop++;
+    }
+
+    private void applyMove(int fromIdx, int toIdx, int height) {
+        long to = (1L << toIdx);
+
+        long from = (1L << fromIdx);
         long friendly;
         long enemy;
+        boolean blueToMove = this.currentPlayer == Player.BLUE;
+
+        // only the from and to squares change: take their old pieces out of the hash
+        long hash = getZobristHash() ^ ZobristHashing.squareKey(this, fromIdx) ^ ZobristHashing.squareKey(this, toIdx);
+        int score = getPieceSquareScore() - Eval.squareScore(this, fromIdx) - Eval.squareScore(this, toIdx);
 
-        if (board.getCurrentPlayer() == Player.BLUE) {
-            friendly = board.getBlue();
-            enemy = board.getRed();
+        if (blueToMove) {
+            friendly = this.blue;
+            enemy = this.red;
         } else {
-            friendly = board.getRed();
-            enemy = board.getBlue();
+            friendly = this.red;
+            enemy = this.blue;
         }
 
         //Delete "From" Position
-        int n = move.height();
+        int n = height;
         for (int i = 6; i >= 0; i--) {
             //If there is a bit present at the "from" position the ^= operation will lead to that bit being deleted which means the height of the Stack at that position will be decreased by 1
-            if ((board.getStack(i) | from) == board.getStack(i)) {
-                board.setStack(i, board.getStack(i) ^ from);
+            if ((stacks[i] & from) != 0) {
+                stacks[i] ^= from;
                 n--;
             }
             if (n == 0) {
@@ -255,29 +419,29 @@ public class Board {
             }
         }
         //update friendly to include the removal of the "from" position
-        if (board.getCurrentPlayer() == Player.BLUE) {
-            board.setBlue(board.getBlue() & board.getStack(0));
+        if (blueToMove) {
+            this.blue &= stacks[0];
         } else {
-            board.setRed(board.getRed() & board.getStack(0));
+            this.red &= stacks[0];
         }
 
         //delete beaten enemy Stack
         for (int i = 0; i < BOARD_SIZE; i++) {
-            board.setStack(i, (board.getStack(i) & enemy ^ to & board.getStack(i)) | (friendly & board.getStack(i)));
+            stacks[i] = (stacks[i] & enemy ^ to & stacks[i]) | (friendly & stacks[i]);
         }
         //update enemy to include the removal of beaten stack
-        if (board.getCurrentPlayer() == Player.BLUE) {
-            board.setRed(enemy & board.getStack(0));
+        if (blueToMove) {
+            this.red = enemy & stacks[0];
         } else {
-            board.setBlue((enemy & board.getStack(0)));
+            this.blue = enemy & stacks[0];
         }
 
         //increase Stacks which player who moved owns
-        n = move.height();
+        n = height;
         for (int i = 0; i < BOARD_SIZE; i++) {
             //If there is no bit present at the "to" position the | operation will lead to that bit being added which means the height of the Stack at that position will be increased by 1
-            if ((board.getStack(i) | to) != board.getStack(i)) {
-                board.setStack(i, board.getStack(i) | to);
+            if ((stacks[i] & to) == 0) {
+                stacks[i] |= to;
                 n--;
             }
             if (n == 0) {
@@ -286,40 +450,149 @@ public class Board {
         }
 
         //update friendly to include the increased Stack
-        if (board.getCurrentPlayer() == Player.BLUE) {
-            board.setBlue(board.getStack(0) ^ board.getRed());
+        if (blueToMove) {
+            this.blue = stacks[0] ^ this.red;
         } else {
-            board.setRed(board.getStack(0) ^ board.getBlue());
+            this.red = stacks[0] ^ this.blue;
         }
 
-
         // update guard mask
-        if ((board.getGuards() | from) == board.getGuards()) {
-            board.setGuards(board.getGuards() ^ from ^ to | to);
-        } else if ((board.getGuards() | to) == board.getGuards()) {
-            board.setGuards(board.getGuards() ^ to);
+        if ((this.guards & from) != 0) {
+            this.guards = this.guards ^ from ^ to | to;
+        } else if ((this.guards & to) != 0) {
+            this.guards ^= to;
         }
 
         //update currentPlayer
-        if (board.getCurrentPlayer() == Player.BLUE) {
-            board.setCurrentPlayer(Player.RED);
-        } else if (board.getCurrentPlayer() == Player.RED) {
-            board.setCurrentPlayer(Player.BLUE);
+        this.currentPlayer = blueToMove ? Player.RED : Player.BLUE;
+
+        // ... and put the new pieces plus the side to move back in
+        this.zobristHash = hash ^ ZobristHashing.squareKey(this, fromIdx) ^ ZobristHashing.squareKey(this, toIdx)
+                ^ ZobristHashing.sideToMoveKey();
+        this.pieceSquareScore = score + Eval.squareScore(this, fromIdx) + Eval.squareScore(this, toIdx);
+    }
+
+    /**
+     * Static exchange evaluation: plays out the captures on the target square of {@code move} without searching, each side
+     * always recapturing with the piece that puts the fewest stones on the square, and either side free to stop when
+     * going on would lose. Towers capture along their rank or file at exactly the distance of the stones they move, which
+     * must be at least the height now on the square; guards capture on the neighbouring squares only. A tower that leaves
+     * stones behind keeps blocking its ray, one that moves completely frees it for the next piece behind it.
+     *
+     * @param move packed move of the side to move
+     * @return stones won minus stones lost by the side to move, {@link #SEE_GUARD_VALUE} for a guard capture, 0 for moves
+     *         that capture nothing
+     */
+    public int staticExchange(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int moved = PackedMove.height(move);
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        long enemy = currentPlayer == Player.RED ? blue : red;
+        if ((toBit & enemy) == 0) return 0;
+        if ((toBit & guards) != 0) return SEE_GUARD_VALUE;
+
+        if (seeScratch == null) {
+            seeScratch = new int[SEE_SCRATCH_SIZE];
+        }
+        int[] s = seeScratch;
+        // the mover leaves the rest of its tower on the origin square
+        int fromLeft = heightAt(from) - moved;
+        long occupied = fromLeft == 0 ? stacks[0] & ~fromBit : stacks[0];
+        for (int dir = 0; dir < 4; dir++) {
+            seeScanRay(s, dir, to, 0, occupied, from, fromLeft);
         }
 
-        return board;
+        s[SEE_GAIN] = heightAt(to);
+        int onSquare = moved;                           // stones on the target square
+        boolean guardOnSquare = (guards & fromBit) != 0;
+        boolean redCaptures = currentPlayer != Player.RED;
+        int depth = 0;
+        while (depth < SEE_SCRATCH_SIZE - SEE_GAIN - 1) {
+            long side = redCaptures ? red : blue;
+            int best = -1;
+            int bestStones = Integer.MAX_VALUE;
+            boolean bestIsGuard = false;
+            for (int dir = 0; dir < 4; dir++) {
+                int sq = s[SEE_RAY_SQUARE + dir];
+                if (sq < 0 || (side & (1L << sq)) == 0) continue;
+                int dist = s[SEE_RAY_DISTANCE + dir];
+                if ((guards & (1L << sq)) != 0) {
+                    // the guard goes last, losing it loses the game
+                    if (dist == 1 && best < 0) {
+                        best = dir;
+                        bestIsGuard = true;
+                    }
+                } else if (s[SEE_RAY_HEIGHT + dir] >= dist && dist >= onSquare && dist < bestStones) {
+                    best = dir;
+                    bestStones = dist;
+                    bestIsGuard = false;
+                }
+            }
+            if (best < 0) break;
+
+            depth++;
+            s[SEE_GAIN + depth] = (guardOnSquare ? SEE_GUARD_VALUE : onSquare) - s[SEE_GAIN + depth - 1];
+            if (guardOnSquare) break;                   // game over, nothing to recapture
+
+            onSquare = bestIsGuard ? 1 : bestStones;
+            guardOnSquare = bestIsGuard;
+            s[SEE_RAY_HEIGHT + best] -= onSquare;
+            if (s[SEE_RAY_HEIGHT + best] == 0) {        // origin empty: the next piece on this ray comes into play
+                int sq = s[SEE_RAY_SQUARE + best];
+                occupied &= ~(1L << sq);
+                seeScanRay(s, best, sq, s[SEE_RAY_DISTANCE + best], occupied, from, fromLeft);
+            }
+            redCaptures = !redCaptures;
+        }
+        // each side only continues the exchange while it pays
+        while (depth > 0) {
+            s[SEE_GAIN + depth - 1] = -Math.max(-s[SEE_GAIN + depth - 1], s[SEE_GAIN + depth]);
+            depth--;
+        }
+        return s[SEE_GAIN];
     }
 
-    public Board copy() {
-        Board b = new Board();
-        b.setBlue(this.blue);
-        b.setRed(this.red);
-        b.setGuards(this.guards);
+    /**
+     * Finds the nearest occupied square on ray {@code dir} from the target beyond {@code start} (at {@code startDistance}
+     * from the target) and records it in the scratch array; -1 if the ray is empty.
+     */
+    private void seeScanRay(int[] s, int dir, int start, int startDistance, long occupied, int from, int fromLeft) {
+        int sq = start;
+        int dist = startDistance;
+        while (true) {
+            int col = sq % BOARD_SIZE;
+            switch (dir) {
+                case 0 -> sq = sq + BOARD_SIZE < BOARD_SIZE * BOARD_SIZE ? sq + BOARD_SIZE : -1;
+                case 1 -> sq = sq >= BOARD_SIZE ? sq - BOARD_SIZE : -1;
+                case 2 -> sq = col < BOARD_SIZE - 1 ? sq + 1 : -1;
+                default -> sq = col > 0 ? sq - 1 : -1;
+            }
+            if (sq < 0) break;
+            dist++;
+            if ((occupied & (1L << sq)) != 0) {
+                s[SEE_RAY_SQUARE + dir] = sq;
+                s[SEE_RAY_DISTANCE + dir] = dist;
+                s[SEE_RAY_HEIGHT + dir] = sq == from ? fromLeft : heightAt(sq);
+                return;
+            }
+        }
+        s[SEE_RAY_SQUARE + dir] = -1;
+    }
 
-        for (int i = 0; i < 7; i++) {
-            b.setStack(i, this.stacks[i]);        // copy the stacks
+    /**
+     * Height of the tower on square {@code idx}, 1 for a guard, 0 if the square is empty.
+     */
+    private int heightAt(int idx) {
+        long bit = 1L << idx;
+        for (int h = BOARD_SIZE - 1; h >= 0; h--) {
+            if ((stacks[h] & bit) != 0) return h + 1;
         }
-        b.setCurrentPlayer(this.currentPlayer);   // copy the side to move
-        return b;
+        return 0;
+    }
+
+    public Board copy() {
+        return new Board(this);
     }
 }
\ No newline at end of file
@@ -41,6 +41,15 @@ public class Client {
         try {
             SERVER_HOST = (args.length > 0) ? args[0] : DEFAULT_SERVER_HOST;
             SERVER_PORT = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_SERVER_PORT;
+            // optional third argument: transposition table size in MiB (otherwise -Dtt.size.mb or the default)
+            if (args.length > 2) {
+                AI.setTTSize(Integer.parseInt(args[2]));
+            }
+            // optional fourth argument: number of search threads (otherwise -Dsearch.threads or 1)
+            if (args.length > 3) {
+                AI.setThreads(Integer.parseInt(args[3]));
+            }
+            System.out.printf("Transposition table: %d MiB, search threads: %d%n", AI.getTTSizeMb(), AI.getThreads());
             new Client().start();
         } catch (Exception e) {
             e.printStackTrace();
@@ -0,0 +1,77 @@
+/**
+ * Depth reached at a fixed time per move, with a search feature switched off and on. Measures whether a pruning
+ * technique pays for itself: it has to reach more depth in the same time, not just visit fewer nodes. A second table
+ * gives the nodes of a fixed-depth search on the same positions.
+ * <p>
+ * Usage: {@code DepthBenchmark [feature] [timeMs] [depth]}, features: {@code nullmove} (default), {@code lmr},
+ * {@code futility}, {@code rootorder}, time per move 1000 ms, fixed depth 5.
+ */
+public class DepthBenchmark {
+
+    private static final String[] POSITIONS = {
+            Perft.START_FEN,
+            "3RG3/2r11r12/1r21r11r21/7/3b33/2b11b12/1b21BG3 b",   // midgame
+            "7/6r3/1RG5/3b43/1r25/7/2BG3r1 r",                     // endgame
+            "7/6r3/1RG5/3b43/1r25/7/2BG3r1 b",
+    };
+
+    public static void main(String[] args) {
+        String feature = args.length > 0 ? args[0] : "nullmove";
+        long timeMs = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.printf("%-52s %12s %12s%n", "depth at " + timeMs + " ms", feature + " off", feature + " on");
+        int totalOff = 0;
+        int totalOn = 0;
+        for (String fen : POSITIONS) {
+            int off = depthAt(fen, feature, false, timeMs);
+            int on = depthAt(fen, feature, true, timeMs);
+            totalOff += off;
+            totalOn += on;
+            System.out.printf("%-52s %12d %12d%n", fen, off, on);
+        }
+        System.out.printf("%-52s %12d %12d%n", "total depth", totalOff, totalOn);
+
+        System.out.printf("%n%-52s %12s %12s%n", "nodes at depth " + depth, feature + " off", feature + " on");
+        long nodesOff = 0;
+        long nodesOn = 0;
+        for (String fen : POSITIONS) {
+            int off = nodesAt(fen, feature, false, depth);
+            int on = nodesAt(fen, feature, true, depth);
+            nodesOff += off;
+            nodesOn += on;
+            System.out.printf("%-52s %12d %12d%n", fen, off, on);
+        }
+        System.out.printf("%-52s %12d %12d%n", "total nodes", nodesOff, nodesOn);
+    }
+
+    private static int depthAt(String fen, String feature, boolean enabled, long timeMs) {
+        Searcher searcher = searcher(feature, enabled);
+        searcher.setMoveTime(timeMs);
+        searcher.pickMove(new Board(fen));
+        return searcher.depthReached();
+    }
+
+    /**
+     * Nodes of the last iteration of a search to the given depth.
+     */
+    private static int nodesAt(String fen, String feature, boolean enabled, int depth) {
+        Searcher searcher = searcher(feature, enabled);
+        searcher.pickMoveTestVersion(new Board(fen), depth);
+        return searcher.nodesVisited;
+    }
+
+    private static Searcher searcher(String feature, boolean enabled) {
+        Searcher searcher = new Searcher(TranspositionTableArray.DEFAULT_SIZE_MB, 1);
+        searcher.setVerbose(false);
+        switch (feature) {
+            case "nullmove" -> searcher.setNullMovePruning(enabled);
+            case "lmr" -> searcher.setLateMoveReductions(enabled);
+            case "futility" -> searcher.setFutilityPruning(enabled);
+            // "off" orders the root like the interior nodes, "on" by the full evaluation of every root move
+            case "rootorder" -> searcher.setRootEvalOrdering(enabled);
+            default -> throw new IllegalArgumentException("unknown feature " + feature);
+        }
+        return searcher;
+    }
+}
@@ -1,5 +1,3 @@
-import java.util.List;
-
 /*
  * Revised evaluation function for Guard & Towers AI.
  * Each feature block is preceded by a short comment that
@@ -31,12 +29,113 @@ public final class Eval {
     private static final int GUARD_THREAT_PER_ENEMY = -21;
 
     /*
-     * Main entry – returns (score for RED – score for BLUE).
+     * Main entry – returns (score for RED – score for BLUE), the same value as
+     * evaluateSide(RED) – evaluateSide(BLUE).
      */
     public static int evaluate(Board b) {
-        int red = evaluateSide(b, Player.RED);
-        int blue = evaluateSide(b, Player.BLUE);
-        return red - blue;
+        return evaluate(b, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /*
+     * Evaluation against a window (Red – Blue, like the search bounds).
+     *  ‣ Material, tower levels, center and guard progress only change on the
+     *    two squares of a move, the Board keeps their sum up to date
+     *    (getPieceSquareScore), so they cost nothing here.
+     *  ‣ Mobility counts the moves of the side to move for both sides and
+     *    cancels out of the difference, it is not computed at all.
+     *  ‣ Blocked towers: the side not to move has no moves in the position, all
+     *    its pieces count as blocked. Only the mover's blocked pieces need the
+     *    move masks; they lie between 0 and all of its pieces, and if the score
+     *    is outside the window for either end, that end is returned instead.
+     * A result outside the window is therefore only a bound on the exact score,
+     * on the same side of the window – enough for a stand-pat cutoff.
+     */
+    public static int evaluate(Board b, int alpha, int beta) {
+        boolean redWon = Board.checkplayerWon(b, Player.RED);
+        boolean blueWon = Board.checkplayerWon(b, Player.BLUE);
+        if (redWon || blueWon) {
+            return (redWon ? WIN_LOSS_WEIGHT : -WIN_LOSS_WEIGHT) - (blueWon ? WIN_LOSS_WEIGHT : -WIN_LOSS_WEIGHT);
+        }
+
+        int score = b.getPieceSquareScore();
+        score += (alignedWithEnemyGuard(b, Player.RED) - alignedWithEnemyGuard(b, Player.BLUE)) * FILE_ALIGNED_GUARD_BONUS;
+        score += (friendsNearGuard(b, Player.RED) - friendsNearGuard(b, Player.BLUE)) * GUARD_SAFETY_PER_FRIEND;
+        score += (enemiesNearOurGuard(b, Player.RED) - enemiesNearOurGuard(b, Player.BLUE)) * GUARD_THREAT_PER_ENEMY;
+
+        boolean redToMove = b.getCurrentPlayer() == Player.RED;
+        int moverSign = redToMove ? 1 : -1;
+        long mover = redToMove ? b.getRed() : b.getBlue();
+        long waiting = redToMove ? b.getBlue() : b.getRed();
+        score -= moverSign * Long.bitCount(waiting) * BLOCKED_TOWER_PENALTY;
+
+        /* Lazy part – the mover's blocked pieces. */
+        int allBlocked = score + moverSign * Long.bitCount(mover) * BLOCKED_TOWER_PENALTY;
+        int low = Math.min(score, allBlocked);
+        int high = Math.max(score, allBlocked);
+        if (high <= alpha) return high;
+        if (low >= beta) return low;
+        return score + moverSign * Long.bitCount(mover & ~MoveGenerator.movablePieces(b)) * BLOCKED_TOWER_PENALTY;
+    }
+
+    /*
+     * Sum of squareScore over the board: material, tower levels, center
+     * control and guard progress of both sides (Red – Blue).
+     */
+    public static int pieceSquareScore(Board b) {
+        int score = 0;
+        for (long occupied = b.getStack(0); occupied != 0; occupied &= occupied - 1) {
+            score += squareScore(b, Long.numberOfTrailingZeros(occupied));
+        }
+        return score;
+    }
+
+    /*
+     * Share of the piece on square sq in pieceSquareScore, positive for Red,
+     * 0 for an empty square. Board.applyMove takes the two squares of a move
+     * out before and puts them back in after the move.
+     */
+    public static int squareScore(Board b, int sq) {
+        long bit = 1L << sq;
+        if ((b.getStack(0) & bit) == 0) return 0;
+        boolean red = (b.getRed() & bit) != 0;
+        int score = (CENTER_MASK & bit) != 0 ? CENTER_CONTROL_BONUS : 0;
+        if ((b.getGuards() & bit) != 0) {
+            int target = red ? CASTLE_INDEX[0] : CASTLE_INDEX[1];
+            int distance = Math.abs(sq / 7 - target / 7) + Math.abs(sq % 7 - target % 7);
+            score += MATERIAL_PER_PIECE + (MAX_DISTANCE - distance) * GUARD_PROGRESS_BONUS;
+        } else {
+            int height = 1;
+            while (height < 7 && (b.getStack(height) & bit) != 0) height++;
+            score += towerValue(height);
+        }
+        return red ? score : -score;
+    }
+
+    /*
+     * True for scores of won or lost positions (±2 × WIN_LOSS_WEIGHT), which no
+     * positional evaluation comes close to.
+     */
+    public static boolean isWinScore(int score) {
+        return Math.abs(score) >= WIN_LOSS_WEIGHT;
+    }
+
+    /*
+     * Material and tower-height score the opponent loses when a tower of the
+     * given height is captured (material + extra levels above 1).
+     */
+    public static int towerValue(int height) {
+        return height * MATERIAL_PER_PIECE + (height - 1) * TOWER_EXTRA_PER_LEVEL;
+    }
+
+    /*
+     * Converts the result of Board.staticExchange (stones, or SEE_GUARD_VALUE
+     * for a guard capture) into evaluation units. The stones can come from
+     * several towers, so each one is priced at most: a piece plus one extra
+     * tower level. A guard capture wins the game.
+     */
+    public static int exchangeValue(int see) {
+        if (see >= Board.SEE_GUARD_VALUE) return 2 * WIN_LOSS_WEIGHT;
+        return Math.max(0, see) * (MATERIAL_PER_PIECE + TOWER_EXTRA_PER_LEVEL);
     }
 
     public static int naiveEvaluate(Board b) {
@@ -78,7 +177,9 @@ public final class Eval {
         //System.out.println("guard Distance to Target: " + score);
 
         /* 7️⃣ Mobility – each legal move gives +2 (cheap tie‑breaker). */
-        score += MoveGenerator.generateAllLegalMoves(board).size() * MOBILITY_PER_MOVE;
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, moves);
+        score += moves.size() * MOBILITY_PER_MOVE;
         //System.out.println("Mobility per move: " + score);
 
         /* 8️⃣ Blocked towers – small penalty per own tower with no moves. */
@@ -127,27 +228,35 @@ public final class Eval {
     }
 
     private static final int[] CENTER_SQUARES = {15, 16, 17, 22, 23, 24, 29, 30, 31}; // 7×7 index
+    private static final long CENTER_MASK;
+    // per guard square: its rank and file, and the squares within Manhattan distance 2 (without the square itself).
+    // Index 64 is what numberOfTrailingZeros gives for a captured guard; its masks are empty, so no feature needs a branch.
+    private static final long[] LINE_MASKS = new long[65];
+    private static final long[] NEAR_GUARD_MASKS = new long[65];
+
+    static {
+        long center = 0L;
+        for (int idx : CENTER_SQUARES) center |= 1L << idx;
+        CENTER_MASK = center;
+        for (int g = 0; g < 49; g++) {
+            for (int idx = 0; idx < 49; idx++) {
+                int dr = Math.abs(idx / 7 - g / 7), dc = Math.abs(idx % 7 - g % 7);
+                if (dr == 0 || dc == 0) LINE_MASKS[g] |= 1L << idx;
+                if (idx != g && dr + dc <= 2) NEAR_GUARD_MASKS[g] |= 1L << idx;
+            }
+        }
+    }
 
     public static int countInCenter(Board b, Player side) {
         long mask = (side == Player.RED) ? b.getRed() : b.getBlue();
-        int cnt = 0;
-        for (int idx : CENTER_SQUARES) if (((mask >> idx) & 1L) != 0) cnt++;
-        return cnt;
+        return Long.bitCount(mask & CENTER_MASK);
     }
 
+    // all own pieces on the rank or file of the enemy guard, 0 once it is captured
     public static int alignedWithEnemyGuard(Board b, Player side) {
         long myTowers = (side == Player.RED) ? b.getRed() : b.getBlue();
         long enemyGuard = b.getGuards() & ((side == Player.RED) ? b.getBlue() : b.getRed());
-        if (enemyGuard == 0) return 0; // guard already captured – handled earlier
-        int guardIdx = Long.numberOfTrailingZeros(enemyGuard);
-        int gRow = guardIdx / 7, gCol = guardIdx % 7;
-        int aligned = 0;
-        for (int idx = 0; idx < 49; idx++)
-            if (((myTowers >> idx) & 1L) != 0) {
-                int r = idx / 7, c = idx % 7;
-                if (r == gRow || c == gCol) aligned++;
-            }
-        return aligned;
+        return Long.bitCount(myTowers & LINE_MASKS[Long.numberOfTrailingZeros(enemyGuard)]);
     }
 
     private static final int[] CASTLE_INDEX = {3, 45}; // Red target, Blue target
@@ -163,49 +272,22 @@ public final class Eval {
         return Math.abs(r - tr) + Math.abs(c - tc);
     }
 
+    // own pieces without a legal move; only the side to move has moves, so all pieces of the other side count
     public static int countBlockedTowers(Board b, Player side) {
-        int blocked = 0;
-        List<MovePair> moves = MoveGenerator.generateAllLegalMoves(b);
         long mask = (side == Player.RED) ? b.getRed() : b.getBlue();
-        boolean[] hasMove = new boolean[49];
-        for (MovePair m : moves) {
-            int from = m.from();
-            hasMove[from] = true;
-        }
-        for (int idx = 0; idx < 49; idx++)
-            if (((mask >> idx) & 1L) != 0) {
-                if (!hasMove[idx]) blocked++;
-            }
-        return blocked;
+        return Long.bitCount(mask & ~MoveGenerator.movablePieces(b));
     }
 
+    // own pieces within Manhattan distance 2 of the own guard
     public static int friendsNearGuard(Board b, Player side) {
-        long guard = b.getGuards() & ((side == Player.RED) ? b.getRed() : b.getBlue());
-        if (guard == 0) return 0;
-        int g = Long.numberOfTrailingZeros(guard);
-        int gr = g / 7, gc = g % 7;
         long mask = (side == Player.RED) ? b.getRed() : b.getBlue();
-        int cnt = 0;
-        for (int idx = 0; idx < 49; idx++)
-            if (((mask >> idx) & 1L) != 0 && idx != g) {
-                int r = idx / 7, c = idx % 7;
-                if (Math.abs(r - gr) + Math.abs(c - gc) <= 2) cnt++;
-            }
-        return cnt;
+        return Long.bitCount(mask & NEAR_GUARD_MASKS[Long.numberOfTrailingZeros(b.getGuards() & mask)]);
     }
 
+    // enemy pieces within Manhattan distance 2 of the own guard
     public static int enemiesNearOurGuard(Board b, Player side) {
         long guard = b.getGuards() & ((side == Player.RED) ? b.getRed() : b.getBlue());
-        if (guard == 0) return 0;
-        int g = Long.numberOfTrailingZeros(guard);
-        int gr = g / 7, gc = g % 7;
         long mask = (side == Player.RED) ? b.getBlue() : b.getRed();
-        int cnt = 0;
-        for (int idx = 0; idx < 49; idx++)
-            if (((mask >> idx) & 1L) != 0) {
-                int r = idx / 7, c = idx % 7;
-                if (Math.abs(r - gr) + Math.abs(c - gc) <= 2) cnt++;
-            }
-        return cnt;
+        return Long.bitCount(mask & NEAR_GUARD_MASKS[Long.numberOfTrailingZeros(guard)]);
     }
 }
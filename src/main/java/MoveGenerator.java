@@ -1,15 +1,31 @@
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class MoveGenerator {
     public static final int BOARD_SIZE = 7;
-    private static final Map<MovePair, Long> PATH_MASK_MAP = new HashMap<>();
+    // squares strictly between from and to, indexed from * 49 + to (0 if the squares are not on one line)
+    private static final long[] PATH_MASKS = new long[49 * 49];
+    // number of steps from -> to along a rank or file, 0 if the squares are not on one line
+    private static final byte[] LINE_DISTANCE = new byte[49 * 49];
     private static final long[] LEFT_MASKS = new long[BOARD_SIZE];
     private static final long[] RIGHT_MASKS = new long[BOARD_SIZE];
     private static final long FULL_MASK;
 
+    // Richtungen für generateMovesInDirection; index into DIR_STEP, SHIFTS_LEFT and ORIGIN_MASKS
+    public static final int NORTH = 0;
+    public static final int SOUTH = 1;
+    public static final int EAST = 2;
+    public static final int WEST = 3;
+    // bit distance of one step in each direction
+    private static final int[] DIR_STEP = {BOARD_SIZE, BOARD_SIZE, 1, 1};
+    // North and West move towards higher indices (<<), South and East towards lower ones (>>>)
+    private static final boolean[] SHIFTS_LEFT = {true, false, false, true};
+    // squares from which a move of n steps in a direction stays on the board, indexed [dir][n] (n = 1..7)
+    private static final long[][] ORIGIN_MASKS = new long[4][BOARD_SIZE + 1];
+    // which moves generateMoves produces
+    private static final int ALL_MOVES = 0;
+    private static final int CAPTURES = 1;
+    private static final int QUIET_MOVES = 2;
+
     static {
         FULL_MASK = (1L << 49) - 1;
 
@@ -26,7 +42,15 @@ public class MoveGenerator {
 
         for (int i = 1; i < BOARD_SIZE; i++) {
             LEFT_MASKS[i] = LEFT_MASKS[i - 1] | (LEFT_MASKS[i - 1] >>> 1);
-            RIGHT_MASKS[i] = RIGHT_MASKS[i - 1] | (RIGHT_MASKS[i - 1] >>> 1);
+            RIGHT_MASKS[i] = RIGHT_MASKS[i - 1] | (RIGHT_MASKS[i - 1] << 1);
+        }
+
+        for (int n = 1; n <= BOARD_SIZE; n++) {
+            long rows = n < BOARD_SIZE ? (1L << (BOARD_SIZE * (BOARD_SIZE - n))) - 1 : 0L;
+            ORIGIN_MASKS[NORTH][n] = rows;
+            ORIGIN_MASKS[SOUTH][n] = rows << (BOARD_SIZE * n);
+            ORIGIN_MASKS[EAST][n] = ~RIGHT_MASKS[n - 1] & FULL_MASK;
+            ORIGIN_MASKS[WEST][n] = ~LEFT_MASKS[n - 1] & FULL_MASK;
         }
     }
 
@@ -36,39 +60,60 @@ public class MoveGenerator {
      * @return List of MovePairs, giving all possible moves in all direction for the current state of the Game.
      */
     public static List<MovePair> generateAllLegalMoves(Board board) {
-        long empty = ~board.getStack(0);
-        List<MovePair> moves = new ArrayList<>();
-        long playerMask = 0L;
-        if (board.getCurrentPlayer() == Player.RED) {
-            playerMask = board.getRed();
-        } else if (board.getCurrentPlayer() == Player.BLUE) {
-            playerMask = board.getBlue();
-        }
+        MoveList moves = new MoveList();
+        generateAllLegalMoves(board, moves);
+        return moves.toMovePairs();
+    }
 
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            moves.addAll(generateMovesInDirection(board.getStack(i) & playerMask, empty, "N", i + 1, board)); // North
-            moves.addAll(generateMovesInDirection(board.getStack(i) & playerMask, empty, "S", i + 1, board)); // South
-            moves.addAll(generateMovesInDirection(board.getStack(i) & playerMask, empty, "E", i + 1, board)); // East
-            moves.addAll(generateMovesInDirection(board.getStack(i) & playerMask, empty, "W", i + 1, board)); // West
+    /**
+     * Allocation-free variant used by the search: clears {@code moves} and fills it with the packed legal moves.
+     * Player masks, the own guard and the capture targets are computed once here instead of once per direction.
+     */
+    public static void generateAllLegalMoves(Board board, MoveList moves) {
+        generateMoves(board, moves, ALL_MOVES);
+    }
 
-        }
+    /**
+     * Capture-only variant for the quiescence search: clears {@code moves} and fills it with the packed moves that land on
+     * an enemy tower or guard, in the order {@link #generateAllLegalMoves(Board, MoveList)} would produce them. Quiet
+     * moves are masked out of the target sets instead of being generated and filtered.
+     */
+    public static void generateCaptures(Board board, MoveList moves) {
+        generateMoves(board, moves, CAPTURES);
+    }
 
-        return moves;
+    /**
+     * The complement of {@link #generateCaptures(Board, MoveList)}: clears {@code moves} and fills it with the packed moves
+     * onto empty squares and own towers, for the move picker, which only needs them once captures and killers are through.
+     */
+    public static void generateQuietMoves(Board board, MoveList moves) {
+        generateMoves(board, moves, QUIET_MOVES);
     }
 
     /**
-     * Generates all Moves in a specific Direction. Does NOT check if pieces Jump over others for their move. DOES Check if Boundaries are violated.
+     * Origins of the legal moves of the side to move, without generating them: a piece that can move at all can move one
+     * square (any longer move needs the neighbouring square empty), so only the one-step targets are checked.
      *
-     * @param fromBits Bitboard containing starting positions of all relevant pieces
-     * @param empty    Bitboard containing position of empty fields
-     * @param dir      String giving the Direction for which the moves should be calculated (North-> "N",East-> "E", South-> "S", West-> "W" )
-     * @param height   int specifying the Minimum height of the Stacks for which the Moves should be calculated. Also determines the Number of steps one Move has.
-     * @return List of MovePairs, giving all possible moves which do not violate Boundary's for the specified Direction.
+     * @return Bitboard of the own pieces that have at least one legal move
      */
-    private static List<MovePair> generateMovesInDirection(long fromBits, long empty, String dir, int height, Board board) {
-        List<MovePair> moves = new ArrayList<>();
-        long shifted;
-        int shift;
+    public static long movablePieces(Board board) {
+        long friendly = board.getCurrentPlayer() == Player.BLUE ? board.getBlue() : board.getRed();
+        long enemy = board.getCurrentPlayer() == Player.BLUE ? board.getRed() : board.getBlue();
+        long ownGuard = board.getGuards() & friendly;
+        long towers = friendly & ~ownGuard;
+        // ein Schritt: Türme nicht auf den eigenen Guard und keine höheren gegnerischen Türme, der Guard nicht auf eigene
+        long towerTargets = FULL_MASK & ~ownGuard & ~(board.getStack(1) & enemy);
+        long guardTargets = FULL_MASK & ~friendly;
+        long movable = 0L;
+        for (int dir = NORTH; dir <= WEST; dir++) {
+            movable |= towers & ORIGIN_MASKS[dir][1] & shiftBack(towerTargets, dir, 1);
+            movable |= ownGuard & ORIGIN_MASKS[dir][1] & shiftBack(guardTargets, dir, 1);
+        }
+        return movable;
+    }
+
+    private static void generateMoves(Board board, MoveList moves, int kind) {
+        moves.clear();
         long friendly;
         long enemy;
         if (board.getCurrentPlayer() == Player.BLUE) {
@@ -78,69 +123,122 @@ public class MoveGenerator {
             friendly = board.getRed();
             enemy = board.getBlue();
         }
-        long guardMoves = board.getGuards() & (friendly);
+        long ownGuard = board.getGuards() & friendly;
+        long towers = friendly & ~ownGuard;
+        long occupied = board.getStack(0);
+        // der Guard schlägt alles außer eigenen Figuren
+        long guardTargets = kind == CAPTURES ? enemy : kind == QUIET_MOVES ? ~friendly & ~enemy : ~friendly;
 
+        // Türme, deren Weg in die jeweilige Richtung bisher frei ist; wird mit jeder Höhe weiter eingeschränkt
+        long clearN = towers;
+        long clearS = towers;
+        long clearE = towers;
+        long clearW = towers;
 
-        //check Direction and shift by required amount
-        fromBits &= ~(board.getGuards() & friendly);
-        switch (dir) {
-            case "E" -> {
-                shift = height;
-                fromBits &= ~RIGHT_MASKS[height - 1];
-                shifted = (fromBits >>> shift) & FULL_MASK;
-                guardMoves = ((guardMoves & ~RIGHT_MASKS[height - 1]) >>> shift) & ~(board.getStack(0) & friendly) & FULL_MASK;
-            }
-            case "W" -> {
-                shift = height;
-                fromBits &= ~LEFT_MASKS[height - 1];
-                guardMoves = ((guardMoves & ~LEFT_MASKS[height - 1]) << shift) & ~(board.getStack(0) & friendly) & FULL_MASK;
-                shifted = (fromBits << shift) & FULL_MASK;
-            }
-            case "N" -> {
-                shift = BOARD_SIZE * height;
-                shifted = (fromBits << shift) & FULL_MASK;
-                guardMoves = (guardMoves << shift) & ~(board.getStack(0) & friendly) & FULL_MASK;
-            }
-            default -> {
-                shift = BOARD_SIZE * height;
-                shifted = (fromBits >>> shift) & FULL_MASK;
-                guardMoves = (guardMoves >>> shift) & ~(board.getStack(0) & friendly) & FULL_MASK;
+        for (int height = 1; height <= BOARD_SIZE; height++) {
+            long fromBits = board.getStack(height - 1) & towers;
+            // stacks are nested, so once no tower reaches this height none reaches a higher one
+            if (fromBits == 0 && height > 1) break;
+
+            //ziele ohne den eigenen Guard und ohne höhere gegnerische Türme
+            long targets = ~ownGuard;
+            if (height < BOARD_SIZE) {
+                targets &= ~(board.getStack(height) & enemy);
             }
+            if (kind == CAPTURES) targets &= enemy;
+            if (kind == QUIET_MOVES) targets &= ~enemy;
+            long guard = height == 1 ? ownGuard : 0L;
+
+            clearN = generateMovesInDirection(NORTH, height, fromBits, clearN, targets, guard, guardTargets, occupied, moves);
+            clearS = generateMovesInDirection(SOUTH, height, fromBits, clearS, targets, guard, guardTargets, occupied, moves);
+            clearE = generateMovesInDirection(EAST, height, fromBits, clearE, targets, guard, guardTargets, occupied, moves);
+            clearW = generateMovesInDirection(WEST, height, fromBits, clearW, targets, guard, guardTargets, occupied, moves);
         }
-        //shifted ohne züge bei denen der eigene Guard das Ziel ist
-        shifted = (shifted & ~(board.getGuards() & friendly));
-        //shifted ohne züge bei denen höhere Türme geschlagen werden
-        if (height < BOARD_SIZE) {
-            shifted &= ~(board.getStack(height) & enemy);
-        }
-        //shifted mit legalen zügen für den Guard
-        if (height == 1) {
-            shifted |= guardMoves;
+    }
+
+    /**
+     * Generates all Moves of one height in a specific Direction. Boundaries are handled by {@code ORIGIN_MASKS}, towers which
+     * would have to jump over other pieces are already missing from {@code clear}, so every bit left in the shifted Bitboard
+     * is a legal move.
+     *
+     * @param dir          Direction index ({@link #NORTH}, {@link #SOUTH}, {@link #EAST}, {@link #WEST})
+     * @param height       Number of steps of the move, also the minimum height of the moving Stacks
+     * @param fromBits     Bitboard containing the own towers of at least {@code height}
+     * @param clear        Bitboard of the own towers whose first {@code height - 1} squares in this direction are empty
+     * @param targets      Bitboard of the squares a tower of this height may move to
+     * @param guard        Bitboard of the own guard for {@code height == 1}, otherwise 0
+     * @param guardTargets Bitboard of the squares the guard may move to
+     * @param occupied     Bitboard of all pieces
+     * @param moves        MoveList the packed moves are appended to
+     * @return {@code clear} narrowed to the towers which may also travel {@code height + 1} squares
+     */
+    private static long generateMovesInDirection(int dir, int height, long fromBits, long clear, long targets, long guard,
+                                                 long guardTargets, long occupied, MoveList moves) {
+        long shifted = shift(fromBits & clear & ORIGIN_MASKS[dir][height], dir, height) & targets;
+        //shifted mit legalen zügen für den Guard (ein Feld, schlägt alles außer eigenen Figuren)
+        if (guard != 0) {
+            shifted |= shift(guard & ORIGIN_MASKS[dir][1], dir, 1) & guardTargets;
         }
+
         //extract from -> to sequences from shifted Bitboard
+        int fromOffset = SHIFTS_LEFT[dir] ? -DIR_STEP[dir] * height : DIR_STEP[dir] * height;
         while (shifted != 0) {
             int to = Long.numberOfTrailingZeros(shifted);
-            int from;
-            if (dir.equals("S") || dir.equals("E")) {
-                from = to + shift;
-            } else {
-                from = to - shift;
-            }
-            MovePair move = new MovePair(from, to, height);
-            //Checking for jumping violations and out of bounds violations
-            if (from >= 0 && from < 49 && moveDoesntJump(move, board)) { //&& moveDoesntJump(move, board)
-                moves.add(move);
-            }
+            moves.add(PackedMove.encode(to + fromOffset, to, height));
             shifted &= shifted - 1; //niedrigstes Bit löschen
         }
-        return moves;
+
+        // a tower can only travel one square further if the square at this distance is empty
+        return clear & ~shiftBack(occupied, dir, height);
+    }
+
+    /**
+     * Shifts {@code bits} by {@code steps} squares in direction {@code dir}. Bits leaving the board are not masked, callers
+     * restrict the origins with {@code ORIGIN_MASKS} first.
+     */
+    private static long shift(long bits, int dir, int steps) {
+        int amount = DIR_STEP[dir] * steps;
+        return SHIFTS_LEFT[dir] ? bits << amount : bits >>> amount;
+    }
+
+    /**
+     * Shifts {@code bits} by {@code steps} squares against direction {@code dir}, i.e. maps a square onto the origin that
+     * reaches it in {@code steps} squares.
+     */
+    private static long shiftBack(long bits, int dir, int steps) {
+        int amount = DIR_STEP[dir] * steps;
+        return SHIFTS_LEFT[dir] ? bits >>> amount : bits << amount;
     }
 
-    private static boolean moveDoesntJump(MovePair move, Board board) {
-        if (PATH_MASK_MAP.get(move) == null) {
-            return false;
+    /**
+     * Checks a single move in isolation: from and to must lie on one rank or file exactly {@code height} steps apart and
+     * every square in between must be empty. The generator itself never needs this (blocked towers are masked out before
+     * extraction); it is meant for moves that come from somewhere else, e.g. the transposition table.
+     */
+    public static boolean moveDoesntJump(int move, Board board) {
+        int idx = PackedMove.from(move) * 49 + PackedMove.to(move);
+        return LINE_DISTANCE[idx] == PackedMove.height(move) && (board.getStack(0) & PATH_MASKS[idx]) == 0;
+    }
+
+    /**
+     * Checks a packed move against the position without generating anything: the move picker tries the TT move, killers
+     * and countermoves before the moves are generated, and those come from other positions. Accepts exactly the moves
+     * {@link #generateAllLegalMoves(Board, MoveList)} would produce.
+     */
+    public static boolean isLegal(Board board, int move) {
+        int height = PackedMove.height(move);
+        if (PackedMove.from(move) >= 49 || PackedMove.to(move) >= 49 || height == 0) return false;
+        long friendly = board.getCurrentPlayer() == Player.RED ? board.getRed() : board.getBlue();
+        long enemy = board.getCurrentPlayer() == Player.RED ? board.getBlue() : board.getRed();
+        long from = 1L << PackedMove.from(move);
+        long to = 1L << PackedMove.to(move);
+        if ((from & friendly) == 0 || !moveDoesntJump(move, board)) return false;
+        if ((from & board.getGuards()) != 0) {
+            return height == 1 && (to & friendly) == 0;
         }
-        return (board.getStack(0) & PATH_MASK_MAP.get(move)) == 0;
+        // der Turm muss hoch genug sein, darf nicht auf den eigenen Guard oder einen höheren gegnerischen Turm ziehen
+        if ((board.getStack(height - 1) & from) == 0 || (to & friendly & board.getGuards()) != 0) return false;
+        return height == BOARD_SIZE || (to & enemy & board.getStack(height)) == 0;
     }
 
     public static void precomputePathMasks() {
@@ -182,27 +280,25 @@ public class MoveGenerator {
 
                     }
 
-                    PATH_MASK_MAP.put(new MovePair(from, to, height), mask);
+                    PATH_MASKS[from * 49 + to] = mask;
+                    LINE_DISTANCE[from * 49 + to] = (byte) height;
                 }
             }
         }
     }
 
     public static List<MovePair> generateNoisyMoves(Board b) {
-        List<MovePair> all = MoveGenerator.generateAllLegalMoves(b);
-        List<MovePair> noisy = new ArrayList<>();
-        long guards = b.getGuards();
-        long enemy = (b.getCurrentPlayer() == Player.RED) ? b.getBlue() : b.getRed();
-
-        for (MovePair m : all) {
-            long dest = 1L << m.to();
-            if ((dest & guards) != 0) {               // guard capture
-                noisy.add(m);
-            } else if ((dest & enemy) != 0 && m.height() >= towerHeightAt(dest, b)) {
-                noisy.add(m);                         // tower capture
-            }
-        }
-        return noisy;
+        MoveList noisy = new MoveList();
+        generateNoisyMoves(b, noisy);
+        return noisy.toMovePairs();
+    }
+
+    /**
+     * Allocation-free variant: clears {@code noisy} and fills it with the packed capturing moves.
+     */
+    public static void generateNoisyMoves(Board b, MoveList noisy) {
+        // the noisy moves are exactly the captures of towers and of the guard
+        generateCaptures(b, noisy);
     }
 
     /**
@@ -0,0 +1,121 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity list of packed moves (see {@link PackedMove}) with one score slot per move.
+ * The search keeps one instance per ply and refills it at every node, so generating and ordering
+ * moves does not allocate.
+ */
+public final class MoveList {
+    /**
+     * A tower of height h has at most 4 * h moves (1 ... h stones in four directions), so the towers of a side have at
+     * most 4 moves per stone. A side owns 7 stones plus its guard, i.e. at most 4 * 7 + 4 = 32 moves – plenty of headroom.
+     * {@link #add} does not check the capacity: only positions reachable in a game are supported, the FEN constructor of
+     * {@link Board} rejects positions with more pieces than fit.
+     */
+    public static final int MAX_MOVES = 128;
+
+    private final int[] moves = new int[MAX_MOVES];
+    private final int[] scores = new int[MAX_MOVES];
+    private int size;
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int i) {
+        return moves[i];
+    }
+
+    public void set(int i, int move) {
+        moves[i] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from index {@code newSize} on.
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    public int getScore(int i) {
+        return scores[i];
+    }
+
+    public void setScore(int i, int score) {
+        scores[i] = score;
+    }
+
+    /**
+     * Moves the entry at {@code j} to {@code i} (i ≤ j) together with its score; the entries in between move up by one
+     * and keep their order.
+     */
+    public void moveUp(int j, int i) {
+        int move = moves[j];
+        int score = scores[j];
+        System.arraycopy(moves, i, moves, i + 1, j - i);
+        System.arraycopy(scores, i, scores, i + 1, j - i);
+        moves[i] = move;
+        scores[i] = score;
+    }
+
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Moves {@code move} to index 0 and shifts the moves in front of it back by one.
+     * Does nothing if the move is not in the list (e.g. a TT move from a hash collision).
+     */
+    public void moveToFront(int move) {
+        int idx = indexOf(move);
+        if (idx <= 0) return;
+        int score = scores[idx];
+        System.arraycopy(moves, 0, moves, 1, idx);
+        System.arraycopy(scores, 0, scores, 1, idx);
+        moves[0] = move;
+        scores[0] = score;
+    }
+
+    /**
+     * Stable insertion sort on the scores – descending if {@code descending}, ascending otherwise.
+     * Move lists are short, so this beats boxing everything for Collections.sort.
+     */
+    public void sortByScore(boolean descending) {
+        for (int i = 1; i < size; i++) {
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && (descending ? scores[j] < score : scores[j] > score)) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    public List<MovePair> toMovePairs() {
+        List<MovePair> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(PackedMove.toMovePair(moves[i]));
+        }
+        return list;
+    }
+}
@@ -1,16 +1,17 @@
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 public class MoveOrdering {
-    // Maximum depth for killer moves storage
-    private static final int MAX_PLY = 64;
-
-    // Array to store killer moves for each ply (depth)
-    // We store two killer moves per ply
-    private static final MovePair[][] killerMoves = new MovePair[MAX_PLY][2];
+    // captures that win material or trade evenly (static exchange ≥ 0) come before the killer moves, losing ones last
+    private static final int GOOD_CAPTURE_BONUS = 1000000;
+    private static final int BAD_CAPTURE_PENALTY = -1000000;
+    // killer moves of the static convenience methods below; a Searcher keeps them in its own SearchContexts
+    private static final SearchContext defaultContext = new SearchContext(0);
 
     /**
+     * Orders moves by the evaluation of the position after each move. Makes every move and evaluates it in full, which is
+     * too expensive for the interior of the search; the search uses it at the root only (see
+     * {@link #orderMovesStaged(MoveList, Board, int, int, SearchContext)} for the other nodes).
+     * <p>
      * Orders moves based on their estimated value to improve alpha-beta pruning efficiency.
      * Better moves are placed earlier in the list to increase the likelihood of cutoffs.
      * Also considers killer moves that have caused beta cutoffs at the same depth.
@@ -22,15 +23,57 @@ public class MoveOrdering {
      * @return Ordered list of moves
      */
     public static List<MovePair> orderMoves(List<MovePair> moves, Board board, boolean maximizingPlayer, int ply) {
-        // Create a list to store moves with their scores
-        List<MoveOrdering.ScoredMove> scoredMoves = new ArrayList<>();
+        return orderMoves(moves, board, maximizingPlayer, ply, defaultContext);
+    }
 
-        // Score each move by applying it and evaluating the resulting position
+    /**
+     * Same as {@link #orderMoves(List, Board, boolean, int)}, with the killer moves of {@code ctx}.
+     */
+    public static List<MovePair> orderMoves(List<MovePair> moves, Board board, boolean maximizingPlayer, int ply, SearchContext ctx) {
+        MoveList list = new MoveList();
         for (MovePair move : moves) {
+            list.add(PackedMove.of(move));
+        }
+        orderMoves(list, board, maximizingPlayer, ply, ctx);
+        return list.toMovePairs();
+    }
+
+    /**
+     * Allocation-free variant: scores every move of {@code moves} and sorts the list in place.
+     *
+     * @param moves            Packed legal moves, reordered in place
+     * @param board            Current board state (moves are played and taken back on it)
+     * @param maximizingPlayer Whether the current player is maximizing
+     * @param ply              Current search depth (0 = root)
+     */
+    public static void orderMoves(MoveList moves, Board board, boolean maximizingPlayer, int ply) {
+        orderMoves(moves, board, maximizingPlayer, ply, defaultContext);
+    }
+
+    /**
+     * Allocation-free variant used by the search, with the killer moves of the searching thread's context.
+     *
+     * @param moves            Packed legal moves, reordered in place
+     * @param board            Current board state (moves are played and taken back on it)
+     * @param maximizingPlayer Whether the current player is maximizing
+     * @param ply              Current search depth (0 = root)
+     * @param ctx              Search context holding the killer moves
+     */
+    public static void orderMoves(MoveList moves, Board board, boolean maximizingPlayer, int ply, SearchContext ctx) {
+        long enemy = board.getCurrentPlayer() == Player.RED ? board.getBlue() : board.getRed();
+        // Score each move by applying it and evaluating the resulting position
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
             int score = 0;
 
+            // Captures are sorted by their static exchange: good ones first, losing ones after all quiet moves
+            if ((enemy & (1L << PackedMove.to(move))) != 0) {
+                int captureBonus = board.staticExchange(move) >= 0 ? GOOD_CAPTURE_BONUS : BAD_CAPTURE_PENALTY;
+                score += maximizingPlayer ? captureBonus : -captureBonus;
+            }
+
             // Check if this move is a killer move at the current ply
-            if (isKillerMove(move, ply)) {
+            if (ctx.isKillerMove(move, ply)) {
                 // Killer moves get a bonus score but still less than captures
                 // For maximizing player, higher scores are better, so add the bonus
                 // For minimizing player, lower scores are better, so subtract the bonus
@@ -39,74 +82,143 @@ public class MoveOrdering {
             }
 
             // Evaluate the position after the move
-            Board newBoard = Board.makeMove(move, board.copy());
-            score += Eval.evaluate(newBoard);
+            board.doMove(move);
+            score += Eval.evaluate(board);
+            board.undoMove();
 
-            scoredMoves.add(new MoveOrdering.ScoredMove(move, score));
+            moves.setScore(i, score);
         }
 
         // Sort moves based on their scores
-        if (maximizingPlayer) {
-            // For maximizing player, higher scores are better
-            scoredMoves.sort(Comparator.comparing(MoveOrdering.ScoredMove::score).reversed());
-        } else {
-            // For minimizing player, lower scores are better
-            scoredMoves.sort(Comparator.comparing(MoveOrdering.ScoredMove::score));
-        }
+        // For maximizing player higher scores are better, for minimizing player lower scores are better
+        moves.sortByScore(maximizingPlayer);
+    }
 
-        // Extract just the moves from the scored moves
-        List<MovePair> orderedMoves = new ArrayList<>();
-        for (MoveOrdering.ScoredMove scoredMove : scoredMoves) {
-            orderedMoves.add(scoredMove.move());
+    // score tiers of the staged ordering, from the mover's point of view (higher = searched earlier)
+    private static final int TT_MOVE_SCORE = 1 << 30;
+    static final int WINNING_MOVE_SCORE = 1 << 29;
+    static final int GOOD_CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int COUNTERMOVE_SCORE = 1 << 26;
+    private static final int BAD_CAPTURE_SCORE = -(1 << 28);
+
+    // ordering stages, for the cutoff statistics of the Searcher
+    static final int STAGE_TT = 0;
+    static final int STAGE_WINNING = 1;
+    static final int STAGE_GOOD_CAPTURE = 2;
+    static final int STAGE_KILLER = 3;
+    static final int STAGE_COUNTERMOVE = 4;
+    static final int STAGE_QUIET = 5;
+    static final int STAGE_BAD_CAPTURE = 6;
+    static final int STAGES = 7;
+    static final String[] STAGE_NAMES = {"tt", "winning", "good capture", "killer", "countermove", "quiet", "bad capture"};
+    // castle squares the red and the blue guard have to reach
+    private static final long RED_TARGET = 1L << 3;
+    private static final long BLUE_TARGET = 1L << 45;
+
+    /**
+     * Staged ordering for the interior nodes, computed from the bitboards without making a move: the TT move, moves that
+     * win at once (guard captures, guard into the castle), captures with a static exchange ≥ 0 by captured height against
+     * moved stones (MVV/LVA), killer moves, the countermove to the opponent's last move, quiet moves by history score and
+     * last the captures that lose the exchange.
+     * Scores are from the side to move, so the list is always sorted descending.
+     *
+     * @param moves  Packed legal moves, reordered in place
+     * @param board  Current board state (left untouched)
+     * @param ttMove best move from the transposition table or {@link PackedMove#NONE}
+     * @param ply    Current search depth (0 = root)
+     * @param ctx    Search context holding the killer moves, the countermoves and the history table
+     */
+    public static void orderMovesStaged(MoveList moves, Board board, int ttMove, int ply, SearchContext ctx) {
+        boolean redToMove = board.getCurrentPlayer() == Player.RED;
+        long enemy = redToMove ? board.getBlue() : board.getRed();
+        long ownGuard = board.getGuards() & ~enemy;
+        long target = redToMove ? RED_TARGET : BLUE_TARGET;
+        int counterMove = ctx.counterMove(redToMove, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            long to = 1L << PackedMove.to(move);
+            int score;
+            if (move == ttMove) {
+                score = TT_MOVE_SCORE;
+            } else if ((ownGuard & (1L << PackedMove.from(move))) != 0 && to == target) {
+                score = WINNING_MOVE_SCORE;
+            } else if ((to & enemy) != 0) {
+                score = captureScore(board, move);
+            } else if (ctx.isKillerMove(move, ply)) {
+                score = KILLER_SCORE;
+            } else if (move == counterMove) {
+                score = COUNTERMOVE_SCORE;
+            } else {
+                score = ctx.historyScore(redToMove, move);
+            }
+            moves.setScore(i, score);
         }
+        moves.sortByScore(true);
+    }
 
-        return orderedMoves;
+    /**
+     * @return staged ordering score of a capture: winning if it takes the guard, otherwise good or losing by the static
+     *         exchange, most stones taken first with the fewest stones put at risk (MVV/LVA)
+     */
+    static int captureScore(Board board, int move) {
+        long to = 1L << PackedMove.to(move);
+        if ((to & board.getGuards()) != 0) return WINNING_MOVE_SCORE;
+        int mvvLva = MoveGenerator.towerHeightAt(to, board) * 8 - PackedMove.height(move);
+        return (board.staticExchange(move) >= 0 ? GOOD_CAPTURE_SCORE : BAD_CAPTURE_SCORE) + mvvLva;
     }
 
     /**
-     * Checks if a move is a killer move at the given ply
-     *
-     * @param move The move to check
-     * @param ply  The current search depth
-     * @return True if the move is a killer move, false otherwise
+     * @return the quiet move of the own guard into the enemy castle if it is legal, otherwise {@link PackedMove#NONE}
+     *         (a guard that captures on the castle square is found among the captures)
      */
-    private static boolean isKillerMove(MovePair move, int ply) {
-        if (ply >= MAX_PLY) return false;
+    static int castleMove(Board board) {
+        boolean redToMove = board.getCurrentPlayer() == Player.RED;
+        long own = redToMove ? board.getRed() : board.getBlue();
+        long ownGuard = board.getGuards() & own;
+        long target = redToMove ? RED_TARGET : BLUE_TARGET;
+        if (ownGuard == 0 || (board.getStack(0) & target) != 0) return PackedMove.NONE;
+        int move = PackedMove.encode(Long.numberOfTrailingZeros(ownGuard), Long.numberOfTrailingZeros(target), 1);
+        return MoveGenerator.isLegal(board, move) ? move : PackedMove.NONE;
+    }
 
-        return move.equals(killerMoves[ply][0]) || move.equals(killerMoves[ply][1]);
+    /**
+     * @return the stage of a move by its score from {@link #orderMovesStaged}, one of the {@code STAGE_} constants
+     */
+    static int stageOf(int score) {
+        if (score >= TT_MOVE_SCORE) return STAGE_TT;
+        if (score >= WINNING_MOVE_SCORE) return STAGE_WINNING;
+        if (score >= GOOD_CAPTURE_SCORE) return STAGE_GOOD_CAPTURE;
+        if (score >= KILLER_SCORE) return STAGE_KILLER;
+        if (score >= COUNTERMOVE_SCORE) return STAGE_COUNTERMOVE;
+        if (score > BAD_CAPTURE_SCORE / 2) return STAGE_QUIET;
+        return STAGE_BAD_CAPTURE;
     }
 
     /**
-     * Updates the killer moves table when a beta cutoff occurs
+     * Updates the killer moves table of the static ordering methods when a beta cutoff occurs
      *
      * @param move The move that caused the cutoff
      * @param ply  The current search depth
      */
     public static void updateKillerMove(MovePair move, int ply) {
-        if (ply >= MAX_PLY) return;
-
-        // Don't store the same killer move twice
-        if (!move.equals(killerMoves[ply][0])) {
-            // Shift the existing killer move to the second slot
-            killerMoves[ply][1] = killerMoves[ply][0];
-            // Store the new killer move in the first slot
-            killerMoves[ply][0] = move;
-        }
+        defaultContext.updateKillerMove(move, ply);
     }
 
     /**
-     * Resets all killer moves
+     * Updates the killer moves table of the static ordering methods when a beta cutoff occurs
+     *
+     * @param move The packed move that caused the cutoff
+     * @param ply  The current search depth
      */
-    public static void resetKillerMoves() {
-        for (int i = 0; i < MAX_PLY; i++) {
-            killerMoves[i][0] = null;
-            killerMoves[i][1] = null;
-        }
+    public static void updateKillerMove(int move, int ply) {
+        defaultContext.updateKillerMove(move, ply);
     }
 
     /**
-     * Record to store a move with its evaluation score
+     * Resets all killer moves of the static ordering methods
      */
-    private record ScoredMove(MovePair move, int score) {
+    public static void resetKillerMoves() {
+        defaultContext.resetKillerMoves();
     }
 }
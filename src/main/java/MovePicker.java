@@ -0,0 +1,200 @@
+/**
+ * Lazy staged move generation for the interior nodes. Yields the TT move before anything is generated, then the captures
+ * that win or hold the exchange (and the guard's step into the castle), the killer moves, the countermove, the quiet
+ * moves by history score and last the captures that lose the exchange. Each stage is only generated once the previous
+ * one is used up, so a node that cuts off early neither generates nor sorts the rest. Captures and quiet moves are picked
+ * by selection sort, one move per call, stable for equal scores.
+ * Together the stages yield exactly the moves of {@link MoveGenerator#generateAllLegalMoves(Board, MoveList)}, each once;
+ * the order is the one of {@link MoveOrdering#orderMovesStaged(MoveList, Board, int, int, SearchContext)}.
+ * <p>
+ * The {@link SearchContext} keeps one picker per ply, {@link #reset} prepares it for a new node.
+ */
+public final class MovePicker {
+    private static final int TT = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int COUNTERMOVE = 5;
+    private static final int GENERATE_QUIETS = 6;
+    private static final int QUIETS = 7;
+    private static final int BAD_CAPTURES = 8;
+    private static final int DONE = 9;
+
+    private final MoveList captures = new MoveList();
+    private final MoveList quiets = new MoveList();
+    // every move yielded so far, in order
+    private final MoveList picked = new MoveList();
+    private Board board;
+    private SearchContext ctx;
+    private int ply;
+    private int stage;
+    private int ttMove;
+    private int castleMove;
+    // killer moves and countermove yielded before the quiet moves were generated, which must not repeat them
+    private final int[] earlyQuiets = new int[3];
+    private int earlyQuietCount;
+    private int captureIndex;
+    private int quietIndex;
+    // ordering stage of the last move yielded, one of MoveOrdering's STAGE_ constants
+    private int lastStage;
+
+    /**
+     * Prepares the picker for a new node; nothing is generated until {@link #next()} needs it.
+     *
+     * @param board  Current board state, must stay unchanged between the calls of {@link #next()}
+     * @param ttMove best move from the transposition table or {@link PackedMove#NONE}, checked for legality here
+     * @param ply    Current search depth, for the killer moves and the countermove
+     * @param ctx    Search context holding the killer moves, the countermoves and the history table
+     */
+    public void reset(Board board, int ttMove, int ply, SearchContext ctx) {
+        this.board = board;
+        this.ttMove = ttMove;
+        this.ply = ply;
+        this.ctx = ctx;
+        stage = TT;
+        castleMove = PackedMove.NONE;
+        earlyQuietCount = 0;
+        picked.clear();
+    }
+
+    /**
+     * @return the next move to search, or {@link PackedMove#NONE} when all moves have been yielded
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case TT -> {
+                    stage = GENERATE_CAPTURES;
+                    if (MoveGenerator.isLegal(board, ttMove)) return pick(ttMove, MoveOrdering.STAGE_TT);
+                    ttMove = PackedMove.NONE;
+                }
+                case GENERATE_CAPTURES -> {
+                    MoveGenerator.generateCaptures(board, captures);
+                    int kept = 0;
+                    for (int i = 0; i < captures.size(); i++) {
+                        int move = captures.get(i);
+                        if (move == ttMove) continue;
+                        captures.set(kept, move);
+                        captures.setScore(kept++, MoveOrdering.captureScore(board, move));
+                    }
+                    captures.truncate(kept);
+                    castleMove = MoveOrdering.castleMove(board);
+                    if (castleMove != PackedMove.NONE && castleMove != ttMove) {
+                        captures.add(castleMove);
+                        captures.setScore(captures.size() - 1, MoveOrdering.WINNING_MOVE_SCORE);
+                    }
+                    captureIndex = 0;
+                    stage = GOOD_CAPTURES;
+                }
+                case GOOD_CAPTURES -> {
+                    if (captureIndex < captures.size() && selectBest(captures, captureIndex) >= MoveOrdering.GOOD_CAPTURE_SCORE) {
+                        int score = captures.getScore(captureIndex);
+                        return pick(captures.get(captureIndex++),
+                                score >= MoveOrdering.WINNING_MOVE_SCORE ? MoveOrdering.STAGE_WINNING : MoveOrdering.STAGE_GOOD_CAPTURE);
+                    }
+                    stage = FIRST_KILLER;
+                }
+                case FIRST_KILLER, SECOND_KILLER -> {
+                    int killer = ctx.killerMove(ply, stage - FIRST_KILLER);
+                    stage++;
+                    if (isNewQuietMove(killer)) return pickEarlyQuiet(killer, MoveOrdering.STAGE_KILLER);
+                }
+                case COUNTERMOVE -> {
+                    int counterMove = ctx.counterMove(board.getCurrentPlayer() == Player.RED, ply);
+                    stage = GENERATE_QUIETS;
+                    if (isNewQuietMove(counterMove)) return pickEarlyQuiet(counterMove, MoveOrdering.STAGE_COUNTERMOVE);
+                }
+                case GENERATE_QUIETS -> {
+                    ctx.quietGenerations++;
+                    MoveGenerator.generateQuietMoves(board, quiets);
+                    boolean redToMove = board.getCurrentPlayer() == Player.RED;
+                    int kept = 0;
+                    for (int i = 0; i < quiets.size(); i++) {
+                        int move = quiets.get(i);
+                        if (move == ttMove || move == castleMove || isEarlyQuiet(move)) continue;
+                        quiets.set(kept, move);
+                        quiets.setScore(kept++, ctx.historyScore(redToMove, move));
+                    }
+                    quiets.truncate(kept);
+                    quietIndex = 0;
+                    stage = QUIETS;
+                }
+                case QUIETS -> {
+                    if (quietIndex < quiets.size()) {
+                        selectBest(quiets, quietIndex);
+                        return pick(quiets.get(quietIndex++), MoveOrdering.STAGE_QUIET);
+                    }
+                    stage = BAD_CAPTURES;
+                }
+                case BAD_CAPTURES -> {
+                    if (captureIndex < captures.size()) {
+                        selectBest(captures, captureIndex);
+                        return pick(captures.get(captureIndex++), MoveOrdering.STAGE_BAD_CAPTURE);
+                    }
+                    stage = DONE;
+                }
+                default -> {
+                    return PackedMove.NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the moves yielded so far, in the order they were yielded (the last one is the current move)
+     */
+    public MoveList pickedMoves() {
+        return picked;
+    }
+
+    /**
+     * @return ordering stage of the last move yielded, one of the {@code STAGE_} constants of {@link MoveOrdering}
+     */
+    public int stage() {
+        return lastStage;
+    }
+
+    private int pick(int move, int moveStage) {
+        picked.add(move);
+        lastStage = moveStage;
+        return move;
+    }
+
+    private int pickEarlyQuiet(int move, int moveStage) {
+        earlyQuiets[earlyQuietCount++] = move;
+        return pick(move, moveStage);
+    }
+
+    /**
+     * A killer or countermove comes from another position: it has to be legal here, must not be a capture (those had
+     * their stage already) and must not have been yielded before.
+     */
+    private boolean isNewQuietMove(int move) {
+        if (move == PackedMove.NONE || move == ttMove || move == castleMove || isEarlyQuiet(move)) return false;
+        long enemy = board.getCurrentPlayer() == Player.RED ? board.getBlue() : board.getRed();
+        return (enemy & (1L << PackedMove.to(move))) == 0 && MoveGenerator.isLegal(board, move);
+    }
+
+    private boolean isEarlyQuiet(int move) {
+        for (int i = 0; i < earlyQuietCount; i++) {
+            if (earlyQuiets[i] == move) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Selection sort step: moves the first of the highest scored moves of {@code moves[from..]} to {@code from}. The moves
+     * it passes keep their order, so equal scores come out in generation order, as with {@link MoveList#sortByScore}.
+     *
+     * @return its score
+     */
+    private static int selectBest(MoveList moves, int from) {
+        int best = from;
+        for (int i = from + 1; i < moves.size(); i++) {
+            if (moves.getScore(i) > moves.getScore(best)) best = i;
+        }
+        moves.moveUp(best, from);
+        return moves.getScore(from);
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Helpers for the packed int form of a move that the search passes around instead of {@link MovePair}.
+ * <p>
+ * Layout: bits 0-5 hold the from square, bits 6-11 the to square and bits 12-14 the height (1-7).
+ * Because a real move always has a height of at least 1, the value 0 never encodes a move and is used as
+ * {@link #NONE}.
+ */
+public final class PackedMove {
+    public static final int NONE = 0;
+
+    private static final int SQUARE_BITS = 6;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final int HEIGHT_MASK = 0x7;
+
+    private PackedMove() {
+    }
+
+    public static int encode(int from, int to, int height) {
+        return from | (to << SQUARE_BITS) | (height << (2 * SQUARE_BITS));
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> SQUARE_BITS) & SQUARE_MASK;
+    }
+
+    public static int height(int move) {
+        return (move >>> (2 * SQUARE_BITS)) & HEIGHT_MASK;
+    }
+
+    /**
+     * @return the packed form of {@code move}, or {@link #NONE} for null
+     */
+    public static int of(MovePair move) {
+        return move == null ? NONE : encode(move.from(), move.to(), move.height());
+    }
+
+    /**
+     * @return the move as a MovePair, or null for {@link #NONE}
+     */
+    public static MovePair toMovePair(int move) {
+        return move == NONE ? null : new MovePair(from(move), to(move), height(move));
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Perft (performance test) for MoveGenerator and Board: counts the leaf nodes of the full move tree up to a fixed depth.
+ * The counts are compared against the reference table in PerftTest, so every generator optimisation can be checked for
+ * correctness, and the runtime gives the raw move generation throughput.
+ * <p>
+ * A position in which the side that just moved has won has no further moves, it only counts at depth 0
+ * (like a mate in chess).
+ */
+public class Perft {
+    // one buffer per remaining depth, so the recursion does not allocate
+    private static final int MAX_DEPTH = 32;
+    public static final String START_FEN = "r1r11RG1r1r1/2r11r12/3r13/7/3b13/2b11b12/b1b11BG1b1b1 r";
+
+    /**
+     * Counts the leaf nodes {@code depth} plies below {@code board}. Every leaf is visited with doMove/undoMove.
+     */
+    public static long perft(Board board, int depth) {
+        return perft(board, depth, newBuffers(depth), false);
+    }
+
+    /**
+     * Same as {@link #perft(Board, int)}, but at depth 1 the generated moves are counted instead of played (bulk counting).
+     */
+    public static long perftBulk(Board board, int depth) {
+        return perft(board, depth, newBuffers(depth), true);
+    }
+
+    /**
+     * Splits the root moves across all cores, every task works on its own copy of the board. Uses bulk counting.
+     */
+    public static long perftParallel(Board board, int depth) {
+        if (depth <= 1 || isGameOver(board)) return perftBulk(board, depth);
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, rootMoves);
+        return IntStream.range(0, rootMoves.size()).parallel().mapToLong(i -> {
+            Board child = board.copy();
+            child.doMove(rootMoves.get(i));
+            return perft(child, depth - 1, newBuffers(depth - 1), true);
+        }).sum();
+    }
+
+    /**
+     * Perft split by root move, in generation order. Handy to find the move whose subtree differs from a reference.
+     *
+     * @return node count below each root move, keyed by the move in algebraic notation (e.g. "D1-D2-1")
+     */
+    public static Map<String, Long> divide(Board board, int depth) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (depth < 1 || isGameOver(board)) return result;
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, rootMoves);
+        MoveList[] buffers = newBuffers(depth - 1);
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            board.doMove(move);
+            result.put(PackedMove.toMovePair(move).toMove().toAlgebraic(), perft(board, depth - 1, buffers, true));
+            board.undoMove();
+        }
+        return result;
+    }
+
+    private static long perft(Board board, int depth, MoveList[] buffers, boolean bulk) {
+        if (depth == 0) return 1;
+        if (isGameOver(board)) return 0;
+        MoveList moves = buffers[depth];
+        MoveGenerator.generateAllLegalMoves(board, moves);
+        if (bulk && depth == 1) return moves.size();
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.doMove(moves.get(i));
+            nodes += perft(board, depth - 1, buffers, bulk);
+            board.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Only the player who made the last move can have won.
+     */
+    private static boolean isGameOver(Board board) {
+        Player lastMover = board.getCurrentPlayer() == Player.RED ? Player.BLUE : Player.RED;
+        return Board.checkplayerWon(board, lastMover);
+    }
+
+    private static MoveList[] newBuffers(int depth) {
+        if (depth > MAX_DEPTH) throw new IllegalArgumentException("perft depth " + depth + " > " + MAX_DEPTH);
+        MoveList[] buffers = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            buffers[i] = new MoveList();
+        }
+        return buffers;
+    }
+
+    /**
+     * Usage: {@code Perft <depth> [<position> <side>] [divide|bulk|parallel]}, e.g. {@code Perft 5 7/3RG3/7/3r23/3b13/3BG3/7 r bulk}.
+     * Without a FEN the start position is used.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String fen = args.length > 2 ? args[1] + " " + args[2] : START_FEN;
+        String mode = args.length == 2 ? args[1] : args.length > 3 ? args[3] : "";
+        Board board = new Board(fen);
+
+        long start = System.nanoTime();
+        long nodes;
+        switch (mode) {
+            case "divide" -> {
+                nodes = 0;
+                for (Map.Entry<String, Long> e : divide(board, depth).entrySet()) {
+                    System.out.println(e.getKey() + ": " + e.getValue());
+                    nodes += e.getValue();
+                }
+            }
+            case "bulk" -> nodes = perftBulk(board, depth);
+            case "parallel" -> nodes = perftParallel(board, depth);
+            default -> nodes = perft(board, depth);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("perft(%d) = %d  (%.3f s, %.1f M nodes/s)%n", depth, nodes, seconds, nodes / seconds / 1e6);
+    }
+}
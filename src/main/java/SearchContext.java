@@ -0,0 +1,241 @@
+import java.util.Arrays;
+
+/**
+ * Per-thread state of one search: depth limit, statistics, killer moves and the reusable per-ply move buffers. Every
+ * thread of a Searcher works with its own context; only the transposition table is shared between them.
+ */
+public class SearchContext {
+    // one reusable move buffer per ply, so nodes don't allocate lists (quiescence continues past maxPlies)
+    private static final int MOVE_BUFFER_PLIES = 128;
+    // Maximum depth for killer moves storage
+    private static final int MAX_KILLER_PLY = 64;
+
+    /**
+     * 0 for the main search thread, 1 ... n-1 for the helper threads.
+     */
+    final int id;
+    int maxPlies = 64;   // depth guard
+    long cutoffs = 0;
+    long ttHits = 0;
+    int nodesVisited = 0;
+    int reSearches = 0;
+    int basicSearches = 1;
+    long nullMoveCutoffs = 0;
+    long nullMoveVerifyFails = 0;   // null move failed high, but the verification search did not confirm it
+    long lmrReductions = 0;
+    long lmrReSearches = 0;         // reduced search beat the bound, move searched again at full depth
+    long futilityPrunes = 0;        // quiet moves skipped at frontier nodes
+    long reverseFutilityCutoffs = 0;
+    long razorCutoffs = 0;
+    long quiesceNodes = 0;
+    long deltaPrunes = 0;           // captures skipped in quiescence, too small to reach the bound
+    long seePrunes = 0;             // captures skipped in quiescence, losing in the static exchange
+    long firstMoveCutoffs = 0;      // cutoffs by the first move searched, the share of all cutoffs measures the ordering
+    // cutoffs by the ordering stage of the move (see MoveOrdering.stageOf)
+    final long[] cutoffsByStage = new long[MoveOrdering.STAGES];
+    long quietGenerations = 0;      // nodes whose move picker got as far as generating the quiet moves
+    // set by the main thread when its time is up; helpers return as soon as they see it (never set for the main thread)
+    volatile boolean stopped = false;
+
+    private final MoveList[] moveLists = new MoveList[MOVE_BUFFER_PLIES];
+    // one move picker per ply, created on first use (most contexts never get deep)
+    private final MovePicker[] movePickers = new MovePicker[MOVE_BUFFER_PLIES];
+    // quiet moves searched so far at each ply (skipped ones not), the ones a cutoff gives the history malus
+    private final MoveList[] searchedQuiets = new MoveList[MOVE_BUFFER_PLIES];
+    // true at the plies where the side to move passed, so no two null moves follow each other
+    private final boolean[] nullMoveAt = new boolean[MOVE_BUFFER_PLIES];
+    // > 0 while a null-move verification search runs, which must not use null moves itself
+    int nullMoveVerifications = 0;
+    /**
+     * Set by every quiescence call: true if its result depends on a capture chain cut off at the maximum quiescence depth,
+     * so it must not be stored as a complete depth 0 result.
+     */
+    boolean quiesceTruncated = false;
+    // two killer moves (packed, see PackedMove) per ply
+    private final int[][] killerMoves = new int[MAX_KILLER_PLY][2];
+    // butterfly history of the quiet moves, indexed [side][from][to] as side * 49 * 49 + from * 49 + to (side 0 = red)
+    private final int[] history = new int[2 * 49 * 49];
+    // countermoves: the quiet move that last refuted the opponent's previous move, indexed like the history
+    private final int[] counterMoves = new int[2 * 49 * 49];
+    // move played at each ply of the current line (NONE for a null move)
+    private final int[] movesAt = new int[MOVE_BUFFER_PLIES];
+
+    public SearchContext(int id) {
+        this.id = id;
+        for (int i = 0; i < MOVE_BUFFER_PLIES; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    MoveList moveListAt(int ply) {
+        return ply < MOVE_BUFFER_PLIES ? moveLists[ply] : new MoveList();
+    }
+
+    MovePicker movePickerAt(int ply) {
+        if (ply >= MOVE_BUFFER_PLIES) return new MovePicker();
+        if (movePickers[ply] == null) movePickers[ply] = new MovePicker();
+        return movePickers[ply];
+    }
+
+    /**
+     * @return the cleared list of searched quiet moves for the node at {@code ply}
+     */
+    MoveList searchedQuietsAt(int ply) {
+        if (ply >= MOVE_BUFFER_PLIES) return new MoveList();
+        if (searchedQuiets[ply] == null) searchedQuiets[ply] = new MoveList();
+        searchedQuiets[ply].clear();
+        return searchedQuiets[ply];
+    }
+
+    void resetCounters() {
+        nodesVisited = 0;
+        cutoffs = 0;
+        ttHits = 0;
+        reSearches = 0;
+        basicSearches = 1;
+        nullMoveCutoffs = 0;
+        nullMoveVerifyFails = 0;
+        lmrReductions = 0;
+        lmrReSearches = 0;
+        futilityPrunes = 0;
+        reverseFutilityCutoffs = 0;
+        razorCutoffs = 0;
+        quiesceNodes = 0;
+        deltaPrunes = 0;
+        seePrunes = 0;
+        firstMoveCutoffs = 0;
+        Arrays.fill(cutoffsByStage, 0);
+        quietGenerations = 0;
+    }
+
+    void setNullMove(int ply, boolean nullMove) {
+        if (ply < MOVE_BUFFER_PLIES) nullMoveAt[ply] = nullMove;
+    }
+
+    /**
+     * @return true if the move leading to the node at {@code ply} was a null move
+     */
+    boolean afterNullMove(int ply) {
+        return ply > 0 && ply <= MOVE_BUFFER_PLIES && nullMoveAt[ply - 1];
+    }
+
+    /**
+     * Checks if a move is a killer move at the given ply
+     *
+     * @param move The packed move to check
+     * @param ply  The current search depth
+     * @return True if the move is a killer move, false otherwise
+     */
+    boolean isKillerMove(int move, int ply) {
+        if (ply >= MAX_KILLER_PLY) return false;
+
+        return move == killerMoves[ply][0] || move == killerMoves[ply][1];
+    }
+
+    /**
+     * Updates the killer moves table when a beta cutoff occurs
+     *
+     * @param move The packed move that caused the cutoff
+     * @param ply  The current search depth
+     */
+    void updateKillerMove(int move, int ply) {
+        if (ply >= MAX_KILLER_PLY) return;
+
+        // Don't store the same killer move twice
+        if (move != killerMoves[ply][0]) {
+            // Shift the existing killer move to the second slot
+            killerMoves[ply][1] = killerMoves[ply][0];
+            // Store the new killer move in the first slot
+            killerMoves[ply][0] = move;
+        }
+    }
+
+    /**
+     * @return killer move {@code slot} (0 = most recent) at the given ply, or NONE
+     */
+    int killerMove(int ply, int slot) {
+        return ply < MAX_KILLER_PLY ? killerMoves[ply][slot] : PackedMove.NONE;
+    }
+
+    void updateKillerMove(MovePair move, int ply) {
+        updateKillerMove(PackedMove.of(move), ply);
+    }
+
+    /**
+     * Resets all killer moves
+     */
+    void resetKillerMoves() {
+        for (int[] slots : killerMoves) {
+            slots[0] = PackedMove.NONE;
+            slots[1] = PackedMove.NONE;
+        }
+    }
+
+    /**
+     * History scores stay within ±HISTORY_MAX, far below the ordering score of killer moves.
+     */
+    static final int HISTORY_MAX = 1 << 14;
+
+    /**
+     * @return history bonus for a cutoff with {@code depth} plies left: depth², cutoffs near the root weigh more
+     */
+    static int historyBonus(int depth) {
+        return Math.min(depth * depth, HISTORY_MAX / 4);
+    }
+
+    /**
+     * @return history score of a quiet move of the given side, see {@link #updateHistory(boolean, int, int)}
+     */
+    int historyScore(boolean red, int move) {
+        return history[butterflyIndex(red, move)];
+    }
+
+    /**
+     * Adds {@code bonus} (negative for a malus) with gravity: the closer an entry is to ±HISTORY_MAX, the less a bonus in
+     * that direction adds, so old scores decay and new cutoffs can overtake them.
+     */
+    void updateHistory(boolean red, int move, int bonus) {
+        int idx = butterflyIndex(red, move);
+        history[idx] += bonus - history[idx] * Math.abs(bonus) / HISTORY_MAX;
+    }
+
+    void setMoveAt(int ply, int move) {
+        if (ply < MOVE_BUFFER_PLIES) movesAt[ply] = move;
+    }
+
+    /**
+     * @return the countermove stored for the opponent's move leading to the node at {@code ply}, or NONE
+     */
+    int counterMove(boolean red, int ply) {
+        if (ply == 0 || ply > MOVE_BUFFER_PLIES) return PackedMove.NONE;
+        int previous = movesAt[ply - 1];
+        return previous == PackedMove.NONE ? PackedMove.NONE : counterMoves[butterflyIndex(red, previous)];
+    }
+
+    void updateCounterMove(boolean red, int ply, int move) {
+        if (ply == 0 || ply > MOVE_BUFFER_PLIES) return;
+        int previous = movesAt[ply - 1];
+        if (previous != PackedMove.NONE) counterMoves[butterflyIndex(red, previous)] = move;
+    }
+
+    /**
+     * Cutoff statistics: {@code index} is the position of the move in the search order, {@code stage} its ordering stage.
+     */
+    void recordCutoff(int index, int stage) {
+        if (index == 0) firstMoveCutoffs++;
+        cutoffsByStage[stage]++;
+    }
+
+    /**
+     * Clears the history and countermove tables and the current line, for a new search.
+     */
+    void resetHistory() {
+        Arrays.fill(history, 0);
+        Arrays.fill(counterMoves, PackedMove.NONE);
+        Arrays.fill(movesAt, PackedMove.NONE);
+    }
+
+    private static int butterflyIndex(boolean red, int move) {
+        return (red ? 0 : 49 * 49) + PackedMove.from(move) * 49 + PackedMove.to(move);
+    }
+}
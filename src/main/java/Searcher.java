@@ -0,0 +1,1613 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+/**
+ * One independent search engine: owns its transposition table, its search contexts (counters, killer moves, move
+ * buffers) and its Lazy SMP helper threads. Several searchers can run in the same JVM at the same time, e.g. the two
+ * sides of a self-play game; AI is a facade over a single default instance for the client.
+ */
+public class Searcher {
+    /**
+     * System property for the number of search threads, e.g. {@code -Dsearch.threads=16}. 1 (default) searches on the
+     * calling thread only.
+     */
+    public static final String THREADS_PROPERTY = "search.threads";
+    /**
+     * System property to switch null-move pruning off, e.g. {@code -Dsearch.nullmove=false} (default on).
+     */
+    public static final String NULL_MOVE_PROPERTY = "search.nullmove";
+    /**
+     * System property to switch late move reductions off, e.g. {@code -Dsearch.lmr=false} (default on).
+     */
+    public static final String LMR_PROPERTY = "search.lmr";
+    /**
+     * System property to switch futility pruning, reverse futility pruning and razoring off, e.g.
+     * {@code -Dsearch.futility=false} (default on).
+     */
+    public static final String FUTILITY_PROPERTY = "search.futility";
+    /**
+     * Deepest iteration of the time-limited searches. Won positions are solved in no time, without this limit iterative
+     * deepening would run on until the undo stack of the board overflows.
+     */
+    public static final int MAX_SEARCH_DEPTH = 64;
+
+    // statistics of the main search thread, copied from mainContext after every search (see publishStats)
+    long cutoffs = 0;
+    long ttHits = 0; // Counter for transposition table hits
+    double percent = 0.0;
+    int runs = 0;
+    int nodesVisited = 0;
+    int reSearches = 0;
+    int basicSearches = 1;
+    double average;
+    // nodes searched by the Lazy SMP helper threads during the last pickMove / pickMovePVS
+    long helperNodesVisited = 0;
+    // root iterations that had to be searched again because the score fell outside the aspiration window
+    int aspirationFailsHigh = 0;
+    int aspirationFailsLow = 0;
+    // score of the last completed iteration of pickMove / pickMovePVS (Red - Blue)
+    int lastScore = 0;
+    long nullMoveCutoffs = 0;
+    long nullMoveVerifyFails = 0;
+    long lmrReductions = 0;
+    long lmrReSearches = 0;
+    long futilityPrunes = 0;
+    long reverseFutilityCutoffs = 0;
+    long razorCutoffs = 0;
+    long quiesceNodes = 0;
+    long deltaPrunes = 0;
+    long seePrunes = 0;
+    long firstMoveCutoffs = 0;
+    // interior cutoffs by ordering stage, see MoveOrdering.stageOf
+    final long[] cutoffsByStage = new long[MoveOrdering.STAGES];
+    long quietGenerations = 0;
+
+    private final TranspositionTableArray transpositionTable;
+
+    // search state of the calling thread (depth limit, counters, killer moves, move buffers)
+    private final SearchContext mainContext = new SearchContext(0);
+
+    // Lazy SMP helpers: one context per helper thread, run on a pool of daemon threads
+    private SearchContext[] helperContexts = new SearchContext[0];
+    private ExecutorService helperPool = null;
+
+    // Young Brothers Wait: work-stealing pool (created on first use) and the contexts of its split tasks
+    private ForkJoinPool splitPool = null;
+    private final List<SearchContext> splitContexts = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedDeque<SearchContext> idleSplitContexts = new ConcurrentLinkedDeque<>();
+    // best move of the last completed root search, written by the root node
+    private volatile int ybwcRootMove = PackedMove.NONE;
+
+    // prints the time limit and the statistics of every search (off for self-play and tuning runs)
+    private boolean verbose = true;
+    // half width of the first aspiration window, 0 searches every iteration with a full window
+    private int aspirationWindow = ASPIRATION_WINDOW;
+    // fixed time per move in ms instead of the TimeManager budget, 0 = use the TimeManager
+    private long moveTimeMs = 0;
+    private boolean nullMovePruning = Boolean.parseBoolean(System.getProperty(NULL_MOVE_PROPERTY, "true"));
+    private boolean lateMoveReductions = Boolean.parseBoolean(System.getProperty(LMR_PROPERTY, "true"));
+    private boolean futilityPruning = Boolean.parseBoolean(System.getProperty(FUTILITY_PROPERTY, "true"));
+    // root moves ordered by the full evaluation of every child instead of the staged ordering of the other nodes
+    private boolean rootEvalOrdering = true;
+
+    /**
+     * Searcher with a table of {@code -Dtt.size.mb} MiB and {@code -Dsearch.threads} threads (defaults 64 MiB, 1 thread).
+     */
+    public Searcher() {
+        this(Integer.getInteger(TranspositionTableArray.SIZE_PROPERTY, TranspositionTableArray.DEFAULT_SIZE_MB),
+                Integer.getInteger(THREADS_PROPERTY, 1));
+    }
+
+    /**
+     * @param ttSizeMb transposition table size in MiB, rounded down to a power of two
+     * @param threads  number of search threads, see {@link #setThreads(int)}
+     */
+    public Searcher(int ttSizeMb, int threads) {
+        this.transpositionTable = new TranspositionTableArray(ttSizeMb);
+        createThreads(threads);
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * @param ms fixed thinking time per move (e.g. to compare search features at equal time), 0 restores the TimeManager
+     */
+    public void setMoveTime(long ms) {
+        this.moveTimeMs = Math.max(0, ms);
+    }
+
+    public void setNullMovePruning(boolean enabled) {
+        this.nullMovePruning = enabled;
+    }
+
+    public boolean isNullMovePruning() {
+        return nullMovePruning;
+    }
+
+    public void setLateMoveReductions(boolean enabled) {
+        this.lateMoveReductions = enabled;
+    }
+
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * Switches the static-eval pruning near the leaves on or off: futility pruning, reverse futility pruning and razoring.
+     */
+    public void setFutilityPruning(boolean enabled) {
+        this.futilityPruning = enabled;
+    }
+
+    public boolean isFutilityPruning() {
+        return futilityPruning;
+    }
+
+    /**
+     * @param enabled order the root moves by the evaluation after each move (default), otherwise with the cheap staged
+     *                ordering the search uses below the root
+     */
+    public void setRootEvalOrdering(boolean enabled) {
+        this.rootEvalOrdering = enabled;
+    }
+
+    /**
+     * @return last depth the main thread completed in the previous search, in plies below the root moves
+     */
+    public int depthReached() {
+        return mainContext.maxPlies > 0 ? mainContext.maxPlies - 1 : 0;
+    }
+
+    /**
+     * @param halfWidth half width of the first aspiration window, 0 disables aspiration windows
+     */
+    public void setAspirationWindow(int halfWidth) {
+        this.aspirationWindow = Math.max(0, halfWidth);
+    }
+
+    public MovePair pickMove(Board board) {
+        return pickMove(board, false, NO_FIXED_DEPTH);
+    }
+
+    public MovePair pickMoveTestVersion(Board board, int maxply) {
+        return pickMove(board, false, maxply);
+    }
+
+    public MovePair pickMovePVS(Board board) {
+        return pickMove(board, true, NO_FIXED_DEPTH);
+    }
+
+    public MovePair pickMovePVSTestVersion(Board board, int maxply) {
+        return pickMove(board, true, maxply);
+    }
+
+    // fixedDepth of pickMove for the searches that deepen until the time is up
+    private static final int NO_FIXED_DEPTH = -1;
+
+    /**
+     * Iterative deepening driver behind the four public pick methods.
+     *
+     * @param pvs        principal variation search instead of plain alpha-beta
+     * @param fixedDepth search the iterations 0 ... fixedDepth regardless of the time, or {@link #NO_FIXED_DEPTH} to
+     *                   deepen until the time limit (or {@link #MAX_SEARCH_DEPTH}) is reached
+     */
+    private MovePair pickMove(Board board, boolean pvs, int fixedDepth) {
+        // Reset counters for each move selection
+        resetCounters();
+        resetMaxPlies();
+        aspirationFailsHigh = 0;
+        aspirationFailsLow = 0;
+
+        // Reset killer moves for a new search
+        mainContext.resetKillerMoves();
+        mainContext.resetHistory();
+        // entries from earlier moves of the game age from now on
+        transpositionTable.newSearch();
+
+        List<MovePair> legalMoves = MoveGenerator.generateAllLegalMoves(board);
+        Board searchBoard = board.copy();   // searched in place with doMove/undoMove
+        boolean maximizingPlayer = board.getCurrentPlayer() != Player.BLUE;
+        MovePair totalBestMove = null;
+        int totalBestValue = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+
+        // start global timer only ONCE
+        long startTime = System.currentTimeMillis();
+        int moveCounter = 0;
+        long baseTimeLimit = 2000;
+        long timeLimit = moveTimeMs > 0 ? moveTimeMs : TimeManager.computeTimeBudget(board, legalMoves, baseTimeLimit);
+        long branchLimit = pvs ? (long) (timeLimit * 1.1 / legalMoves.size()) : timeLimit;
+        if (verbose) System.out.println("Time Limit: " + timeLimit);
+
+        /* ---------- order moves to improve alpha-beta efficiency --------------- */
+        List<MovePair> orderedMoves = orderRootMoves(legalMoves, board, maximizingPlayer);
+
+        // Check if there's a best move in the transposition table
+        long zobristHash = board.getZobristHash();
+        TranspositionTableArray.TTEntry ttEntry = transpositionTable.retrieve(zobristHash);
+
+        // If a best move was found in TT, try it first
+        if (ttEntry != null && ttEntry.best != PackedMove.NONE) {
+            MovePair ttMove = PackedMove.toMovePair(ttEntry.best);
+            orderedMoves.remove(ttMove); // Remove if present to avoid duplicate
+            orderedMoves.addFirst(ttMove); // Add to the front
+        }
+
+        // with a fixed depth, helpers (if any) deepen freely until the main thread has finished
+        List<Future<?>> helpers = startHelpers(board, orderedMoves, startTime, timeLimit, pvs);
+        for (int ply = 0; fixedDepth == NO_FIXED_DEPTH
+                ? System.currentTimeMillis() - startTime < timeLimit && mainContext.maxPlies < MAX_SEARCH_DEPTH
+                : ply <= fixedDepth; ply++) {
+            resetCounters();
+            RootResult result = aspirationSearch(searchBoard, orderedMoves, maximizingPlayer, pvs, totalBestMove,
+                    totalBestValue, branchLimit, startTime, timeLimit);
+            moveCounter += result.movesSearched();
+            if (System.currentTimeMillis() - startTime <= timeLimit) {
+                mainContext.maxPlies++;
+                totalBestValue = result.bestValue();
+                totalBestMove = result.bestMove();
+                lastScore = totalBestValue;
+            }
+        }
+        stopHelpers(helpers);
+        publishStats();
+        if (verbose) evaluate(moveCounter, legalMoves.size(), startTime);
+        return totalBestMove;
+    }
+
+    // -----------------------------------------------------------------------------
+    //  Root search with aspiration windows
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Default half width of the first aspiration window around the previous iteration's score (a quarter of a piece).
+     */
+    public static final int ASPIRATION_WINDOW = 120;
+    // beyond this half width a failing side of the window is opened completely
+    private static final int MAX_ASPIRATION_DELTA = 4096;
+
+    /**
+     * Outcome of one pass over the root moves.
+     */
+    private record RootResult(MovePair bestMove, int bestValue, int movesSearched) {
+    }
+
+    /**
+     * One iteration of the root search. From the second iteration on, the root moves are searched with a window of
+     * ±{@link #setAspirationWindow aspirationWindow} around the previous iteration's score, which gives more cutoffs than a full window. If
+     * the result falls outside, it is only a bound: the failing side of the window is widened (doubling the step each
+     * time, finally to infinity) and the iteration searched again. Both outcomes are counted in
+     * {@link #aspirationFailsHigh} and {@link #aspirationFailsLow}.
+     *
+     * @param previousBest  best move of the previous iteration, null in the first one
+     * @param previousValue score of the previous iteration, only used if {@code previousBest} is set
+     */
+    private RootResult aspirationSearch(Board searchBoard, List<MovePair> orderedMoves, boolean maximizingPlayer, boolean pvs,
+                                        MovePair previousBest, int previousValue, long branchLimit, long startTime, long timeLimit) {
+        int alpha = Integer.MIN_VALUE;
+        int beta = Integer.MAX_VALUE;
+        int delta = aspirationWindow;
+        // no score yet, or a won/lost position: there is nothing to aim at
+        if (aspirationWindow > 0 && previousBest != null && !Eval.isWinScore(previousValue)) {
+            alpha = previousValue - delta;
+            beta = previousValue + delta;
+        }
+
+        int movesSearched = 0;
+        while (true) {
+            RootResult result = pvs
+                    ? pvsRootPass(searchBoard, orderedMoves, maximizingPlayer, alpha, beta, branchLimit, startTime, timeLimit)
+                    : alphaBetaRootPass(searchBoard, orderedMoves, maximizingPlayer, previousBest, alpha, beta, branchLimit, startTime, timeLimit);
+            movesSearched += result.movesSearched();
+            if (System.currentTimeMillis() - startTime > timeLimit) {
+                return new RootResult(result.bestMove(), result.bestValue(), movesSearched);   // discarded by the caller
+            }
+
+            int value = result.bestValue();
+            delta *= 2;
+            if (value >= beta && beta != Integer.MAX_VALUE) {
+                aspirationFailsHigh++;
+                beta = delta > MAX_ASPIRATION_DELTA ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) value + delta);
+            } else if (value <= alpha && alpha != Integer.MIN_VALUE) {
+                aspirationFailsLow++;
+                alpha = delta > MAX_ASPIRATION_DELTA ? Integer.MIN_VALUE : (int) Math.max(Integer.MIN_VALUE, (long) value - delta);
+            } else {
+                return new RootResult(result.bestMove(), result.bestValue(), movesSearched);
+            }
+        }
+    }
+
+    /**
+     * Searches every root move with the window [alpha, beta]. Stops early as soon as a move is better than the window for
+     * the side to move, the caller widens the window and searches again anyway.
+     */
+    private RootResult alphaBetaRootPass(Board searchBoard, List<MovePair> orderedMoves, boolean maximizingPlayer, MovePair previousBest,
+                                         int alpha, int beta, long branchLimit, long startTime, long timeLimit) {
+        MovePair bestMove = previousBest;
+        int bestValue = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int moveCounter = 0;
+        for (MovePair move : orderedMoves) {
+            searchBoard.doMove(move);
+            int eval = minimaxAlphaBeta(searchBoard, branchLimit, alpha, beta);
+            searchBoard.undoMove();
+
+            if (maximizingPlayer && eval > bestValue) {
+                bestValue = eval;
+                bestMove = move;
+            } else if (!maximizingPlayer && eval < bestValue) {
+                bestValue = eval;
+                bestMove = move;
+            }
+            moveCounter++;
+            // fail high (fail low for blue): the score is only a bound
+            if (maximizingPlayer ? eval >= beta && beta != Integer.MAX_VALUE : eval <= alpha && alpha != Integer.MIN_VALUE) break;
+            // stop looping if we ran out of time
+            if (System.currentTimeMillis() - startTime > timeLimit) break;
+        }
+        return new RootResult(bestMove, bestValue, moveCounter);
+    }
+
+    private List<MovePair> orderRootMoves(List<MovePair> legalMoves, Board board, boolean maximizingPlayer) {
+        if (rootEvalOrdering) return MoveOrdering.orderMoves(legalMoves, board, maximizingPlayer, 0, mainContext);
+        MoveList moves = new MoveList();
+        for (MovePair move : legalMoves) {
+            moves.add(PackedMove.of(move));
+        }
+        MoveOrdering.orderMovesStaged(moves, board, PackedMove.NONE, 0, mainContext);
+        return moves.toMovePairs();
+    }
+
+    /**
+     * Principal variation pass over the root moves: the first move with the window [alpha, beta], the others with a null
+     * window and a re-search if they turn out to be better.
+     */
+    private RootResult pvsRootPass(Board searchBoard, List<MovePair> orderedMoves, boolean maximizingPlayer,
+                                   int alpha, int beta, long branchLimit, long startTime, long timeLimit) {
+        MovePair bestMove = null;
+        int bestValue = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int moveCounter = 0;
+
+        //Besten Move mit vollem Alpha Beta Fenster durchsuchen
+        MovePair firstMove = orderedMoves.getFirst();
+        searchBoard.doMove(firstMove);
+        int eval = minimaxAlphaBetaPVS(searchBoard, branchLimit, alpha, beta);
+        searchBoard.undoMove();
+
+
+        if (maximizingPlayer && eval > bestValue) {
+            bestValue = eval;
+            bestMove = firstMove;
+        } else if (!maximizingPlayer && eval < bestValue) {
+            bestValue = eval;
+            bestMove = firstMove;
+        }
+
+        if(maximizingPlayer){
+            alpha = Math.max(alpha, eval);
+            if (alpha >= beta) {
+                // Store the move that caused the cutoff as a killer move
+                mainContext.updateKillerMove(firstMove, 0);
+            }
+        } else {
+            beta = Math.min(beta, eval);
+            if (beta <= alpha) {
+                mainContext.updateKillerMove(firstMove, 0);
+            }
+        }
+        moveCounter++;
+
+        for (MovePair move : orderedMoves.subList(1, orderedMoves.size())) {
+            if (alpha >= beta) break;   // the first move already left the window
+            searchBoard.doMove(move);
+
+            if(maximizingPlayer){
+                eval = minimaxAlphaBetaPVS(searchBoard, branchLimit, alpha, alpha+1);
+
+                if(eval > alpha && eval < beta){
+                    //re-search mit Fenster [alpha;beta]
+                    mainContext.reSearches++;
+                    eval = minimaxAlphaBetaPVS(searchBoard, branchLimit, alpha, beta);
+                    if(eval < beta){
+                        beta = eval;
+                    }
+                }
+                searchBoard.undoMove();
+
+                alpha = Math.max(alpha, eval);
+                if (alpha >= beta) {
+                    mainContext.cutoffs++;
+                    // Store the move that caused the cutoff as a killer move
+                    mainContext.updateKillerMove(move, 0);
+                    break;
+                }
+            } else {
+                eval = minimaxAlphaBetaPVS(searchBoard, branchLimit, beta-1, beta);
+
+                if(eval > alpha && eval < beta){
+                    //re-search mit Fenster [alpha;beta]
+                    mainContext.reSearches++;
+                    eval = minimaxAlphaBetaPVS(searchBoard, branchLimit, alpha, beta);
+                    if(eval < beta){
+                        beta = eval;
+                    }
+                }
+                searchBoard.undoMove();
+
+                beta = Math.min(beta, eval);
+                if (beta <= alpha) {
+                    mainContext.updateKillerMove(move, 0);
+                }
+            }
+
+            if (maximizingPlayer && eval > bestValue) {
+                bestValue = eval;
+                bestMove = move;
+            } else if (!maximizingPlayer && eval < bestValue) {
+                bestValue = eval;
+                bestMove = move;
+            }
+            moveCounter++;
+            // stop looping if we ran out of time
+            if (System.currentTimeMillis() - startTime > timeLimit) break;
+        }
+        return new RootResult(bestMove, bestValue, moveCounter);
+    }
+
+    public int minimaxAlphaBeta(Board root, long timeLimitMs) {              // convenience
+        return minimaxAlphaBeta(root, timeLimitMs, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public int minimaxAlphaBeta(Board root, long timeLimitMs, int alpha, int beta) {              // convenience
+        boolean rootIsMax = (root.getCurrentPlayer() == Player.RED);
+        long start = System.currentTimeMillis();
+        int score = minimaxAlphaBeta(mainContext,         /* context   */
+                root,                                     /* board     */
+                rootIsMax,                                /* max player*/
+                alpha, beta,                              /* α, β      */
+                start, timeLimitMs,                       /* timing    */
+                0);                                       /* ply = 0   */
+        publishStats();
+        return score;
+    }
+
+    public int minimaxAlphaBetaPVS(Board root, long timeLimitMs, Integer alpha, Integer beta) {              // convenience
+        boolean rootIsMax = (root.getCurrentPlayer() == Player.RED);
+        long start = System.currentTimeMillis();
+        int score = minimaxAlphaBetaPVS(mainContext,      /* context   */
+                root,                                     /* board     */
+                rootIsMax,                                /* max player*/
+                alpha, beta,                              /* α, β      */
+                start, timeLimitMs,                       /* timing    */
+                0);                                       /* ply = 0   */
+        publishStats();
+        return score;
+    }
+
+    // -----------------------------------------------------------------------------
+    //  Core recursive search
+    // -----------------------------------------------------------------------------
+    private int minimaxAlphaBeta(SearchContext ctx, Board board, boolean maximizingPlayer, int alpha, int beta, long startTime, long timeLimitMs, int ply) {
+        ctx.nodesVisited++;
+        /* ---------- Zobrist Hashing and Transposition Table Lookup ------------- */
+        long zobristHash = board.getZobristHash();
+        long ttEntry = transpositionTable.probe(zobristHash);
+        int originalAlpha = alpha; // Store original alpha for TT storing
+        int originalBeta = beta;   // Store original beta for TT storing
+
+        if (ttEntry != TranspositionTableArray.MISS && TranspositionTableArray.depth(ttEntry) >= (ctx.maxPlies - ply)) { // Compare with remaining depth
+            ctx.ttHits++;
+            int ttScore = TranspositionTableArray.score(ttEntry);
+            int ttType = TranspositionTableArray.type(ttEntry);
+            if (ttType == TranspositionTableArray.EXACT_SCORE) {
+                return ttScore;
+            } else if (ttType == TranspositionTableArray.LOWER_BOUND) {
+                alpha = Math.max(alpha, ttScore);
+            } else if (ttType == TranspositionTableArray.UPPER_BOUND) {
+                beta = Math.min(beta, ttScore);
+            }
+            if (alpha >= beta) {
+                return ttScore; // Or alpha/beta depending on bound type, but score should be fine for cutoffs
+            }
+        }
+
+        /* ---------- hard stops: out of time OR too deep OR stopped helper ------- */
+        if (System.currentTimeMillis() - startTime > timeLimitMs || ply >= ctx.maxPlies || ctx.stopped) {
+            return quiesce(ctx, board, alpha, beta, maximizingPlayer, ply);
+        }
+
+        /* ---------- game-ending positions -------------------------------------- */
+        Player prev = (board.getCurrentPlayer() == Player.RED) ? Player.BLUE : Player.RED;
+        if (Board.checkplayerWon(board, prev)) {         // last mover just won
+            return Eval.evaluate(board);
+        }
+
+        /* ---------- null move -------------------------------------------------- */
+        int nullMoveScore = tryNullMove(ctx, board, maximizingPlayer, alpha, beta, startTime, timeLimitMs, ply, false);
+        if (nullMoveScore != NO_CUTOFF) return nullMoveScore;
+
+        /* ---------- reverse futility, razoring, futility ----------------------- */
+        int staticEval = frontierEval(ctx, board, ply);
+        int frontierScore = tryFrontierCutoff(ctx, board, staticEval, maximizingPlayer, alpha, beta, ply);
+        if (frontierScore != NO_CUTOFF) return frontierScore;
+        int futilityValue = futilityValue(ctx, staticEval, maximizingPlayer, alpha, beta, ply);
+
+        /* ---------- moves in stages, generated only as far as they are needed ---- */
+        // If a best move was found in TT, try it first
+        int ttMove = ttEntry != TranspositionTableArray.MISS ? TranspositionTableArray.move(ttEntry) : PackedMove.NONE;
+        MovePicker picker = ctx.movePickerAt(ply);
+        picker.reset(board, ttMove, ply, ctx);
+        MoveList quiets = ctx.searchedQuietsAt(ply);
+
+
+        /* ---------- standard alpha–beta recursion ------------------------------ */
+        int bestScore;
+        int bestMoveForTT = PackedMove.NONE;
+
+        if (maximizingPlayer) {
+            bestScore = Integer.MIN_VALUE;
+            for (int i = 0, m; (m = picker.next()) != PackedMove.NONE; i++) {
+                if (futilityValue != NO_CUTOFF && i > 0 && isQuiet(board, m)) {
+                    // eval + margin stays below alpha, the move cannot raise it
+                    ctx.futilityPrunes++;
+                    bestScore = Math.max(bestScore, futilityValue);
+                    continue;
+                }
+                int reduction = lateMoveReduction(ctx, board, m, i, ply);
+                if (isQuiet(board, m)) quiets.add(m);
+                ctx.setMoveAt(ply, m);
+                board.doMove(m);
+                int score = reduction > 0 ? reducedSearch(ctx, board, true, alpha, beta, startTime, timeLimitMs, ply, reduction, false) : 0;
+                // not reduced, or the reduced search beat alpha: full depth
+                if (reduction == 0 || score > alpha) {
+                    if (reduction > 0) ctx.lmrReSearches++;
+                    score = minimaxAlphaBeta(ctx, board, false, alpha, beta, startTime, timeLimitMs, ply + 1);
+                }
+                board.undoMove();
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMoveForTT = m;
+                }
+                alpha = Math.max(alpha, score);
+                if (alpha >= beta) {
+                    // killer move, history and countermove of the move that caused the cutoff
+                    onCutoff(ctx, board, m, i, picker.stage(), ply, quiets, quiets.size());
+                    break;
+                }
+            }
+        } else { // minimizing player
+            bestScore = Integer.MAX_VALUE;
+            for (int i = 0, m; (m = picker.next()) != PackedMove.NONE; i++) {
+                if (futilityValue != NO_CUTOFF && i > 0 && isQuiet(board, m)) {
+                    // eval - margin stays above beta, the move cannot lower it
+                    ctx.futilityPrunes++;
+                    bestScore = Math.min(bestScore, futilityValue);
+                    continue;
+                }
+                int reduction = lateMoveReduction(ctx, board, m, i, ply);
+                if (isQuiet(board, m)) quiets.add(m);
+                ctx.setMoveAt(ply, m);
+                board.doMove(m);
+                int score = reduction > 0 ? reducedSearch(ctx, board, false, alpha, beta, startTime, timeLimitMs, ply, reduction, false) : 0;
+                // not reduced, or the reduced search got below beta: full depth
+                if (reduction == 0 || score < beta) {
+                    if (reduction > 0) ctx.lmrReSearches++;
+                    score = minimaxAlphaBeta(ctx, board, true, alpha, beta, startTime, timeLimitMs, ply + 1);
+                }
+                board.undoMove();
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestMoveForTT = m;
+                }
+                beta = Math.min(beta, score);
+                if (beta <= alpha) {
+                    // killer move, history and countermove of the move that caused the cutoff
+                    onCutoff(ctx, board, m, i, picker.stage(), ply, quiets, quiets.size());
+                    break;
+                }
+            }
+        }
+        if (picker.pickedMoves().isEmpty()) {             // stalemate or no moves
+            return Eval.evaluate(board);
+        }
+
+        // Store result in Transposition Table
+        int entryType;
+        if (bestScore <= originalAlpha) { // Failed low (upper bound)
+            entryType = TranspositionTableArray.UPPER_BOUND;
+        } else if (bestScore >= originalBeta) { // Failed high (lower bound)
+            entryType = TranspositionTableArray.LOWER_BOUND;
+        } else { // Exact score
+            entryType = TranspositionTableArray.EXACT_SCORE;
+        }
+
+        short effectiveDepth = (short) (ctx.maxPlies - ply);
+        if (ply >= ctx.maxPlies)   // quiescence node
+            effectiveDepth = 0;
+
+        // a stopped helper returns half-searched scores, keep them out of the shared TT
+        if (ctx.stopped) return bestScore;
+
+        // Store the best move for this position in the TT
+        transpositionTable.store(zobristHash, bestScore, effectiveDepth, (byte) entryType, bestMoveForTT);
+        return bestScore;
+    }
+
+    // captures followed below the horizon at most; deeper capture chains end with the static evaluation
+    private static final int MAX_QUIESCE_DEPTH = 8;
+    // positional swing a capture may bring on top of the captured material before delta pruning gives up on it
+    private static final int DELTA_MARGIN = 200;
+
+    private int quiesce(SearchContext ctx, Board node, int alpha, int beta, boolean maximizing, int ply) {
+        return quiesce(ctx, node, alpha, beta, maximizing, ply, MAX_QUIESCE_DEPTH);
+    }
+
+    /**
+     * Capture search below the horizon. Results are shared with the main search through the transposition table as depth 0
+     * entries; captures whose material cannot lift the stand-pat score to alpha (down to beta for blue) are skipped (delta
+     * pruning). Guard captures end the game and are never pruned. A result that depends on a capture chain cut off at
+     * {@link #MAX_QUIESCE_DEPTH} is stored with depth -1 instead, which neither search trusts (see
+     * {@link SearchContext#quiesceTruncated}).
+     */
+    private int quiesce(SearchContext ctx, Board node, int alpha, int beta, boolean maximizing, int ply, int qDepth) {
+        ctx.quiesceNodes++;
+        long zobristHash = node.getZobristHash();
+        // the search node that calls quiesce has just probed this position itself
+        long ttEntry = qDepth < MAX_QUIESCE_DEPTH ? transpositionTable.probe(zobristHash) : TranspositionTableArray.MISS;
+        // every complete entry is at least as deep as a quiescence result, truncated ones (depth -1) are not
+        if (ttEntry != TranspositionTableArray.MISS && TranspositionTableArray.depth(ttEntry) >= 0) {
+            ctx.ttHits++;
+            int ttScore = TranspositionTableArray.score(ttEntry);
+            int ttType = TranspositionTableArray.type(ttEntry);
+            if (ttType == TranspositionTableArray.EXACT_SCORE
+                    || (ttType == TranspositionTableArray.LOWER_BOUND && ttScore >= beta)
+                    || (ttType == TranspositionTableArray.UPPER_BOUND && ttScore <= alpha)) {
+                ctx.quiesceTruncated = false;
+                return ttScore;
+            }
+        }
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+
+        int standPat = Eval.evaluate(node);
+        ctx.quiesceTruncated = false;
+        if (maximizing) {
+            if (standPat >= beta) return standPat;
+            alpha = Math.max(alpha, standPat);
+        } else {
+            if (standPat <= alpha) return standPat;
+            beta = Math.min(beta, standPat);
+        }
+        if (qDepth == 0) {   // end of the capture chain, the captures left here are never looked at
+            ctx.quiesceTruncated = true;
+            return maximizing ? alpha : beta;
+        }
+        boolean truncated = false;
+
+        MoveList noisy = ctx.moveListAt(ply);
+        MoveGenerator.generateCaptures(node, noisy);
+        long guards = node.getGuards();
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < noisy.size(); i++) {
+            int m = noisy.get(i);
+            long dest = 1L << PackedMove.to(m);
+            if ((dest & guards) == 0) {
+                int gain = Eval.towerValue(MoveGenerator.towerHeightAt(dest, node)) + DELTA_MARGIN;
+                if (maximizing ? standPat + gain <= alpha : standPat - gain >= beta) {
+                    ctx.deltaPrunes++;
+                    continue;
+                }
+                // captures that lose stones in the exchange on the square are left to the full-width search
+                int see = node.staticExchange(m);
+                if (see < 0) {
+                    ctx.seePrunes++;
+                    continue;
+                }
+                // delta pruning again with what the exchange nets instead of the captured tower
+                gain = Eval.exchangeValue(see) + DELTA_MARGIN;
+                if (maximizing ? standPat + gain <= alpha : standPat - gain >= beta) {
+                    ctx.seePrunes++;
+                    continue;
+                }
+            }
+            node.doMove(m);
+            int score = quiesce(ctx, node, alpha, beta, !maximizing, ply + 1, qDepth - 1);
+            node.undoMove();
+            truncated |= ctx.quiesceTruncated;
+            if (maximizing) {
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = m;
+                }
+            } else {
+                if (score < beta) {
+                    beta = score;
+                    bestMove = m;
+                }
+            }
+            if (alpha >= beta) break;      // cutoff
+        }
+        int result = maximizing ? alpha : beta;
+
+        // a stopped helper returns half-searched scores, keep them out of the shared TT
+        if (!ctx.stopped) {
+            int entryType;
+            if (result <= originalAlpha) {
+                entryType = TranspositionTableArray.UPPER_BOUND;
+            } else if (result >= originalBeta) {
+                entryType = TranspositionTableArray.LOWER_BOUND;
+            } else {
+                entryType = TranspositionTableArray.EXACT_SCORE;
+            }
+            transpositionTable.store(zobristHash, result, (short) (truncated ? -1 : 0), (byte) entryType, bestMove);
+        }
+        ctx.quiesceTruncated = truncated;
+        return result;
+    }
+
+    private int minimaxAlphaBetaPVS(SearchContext ctx, Board board, boolean maximizingPlayer, int alpha, int beta, long startTime, long timeLimitMs, int ply) {
+        ctx.nodesVisited++;
+        /* ---------- Zobrist Hashing and Transposition Table Lookup ------------- */
+        long zobristHash = board.getZobristHash();
+        long ttEntry = transpositionTable.probe(zobristHash);
+        int originalAlpha = alpha; // Store original alpha for TT storing
+        int originalBeta = beta;   // Store original beta for TT storing
+
+        if (ttEntry != TranspositionTableArray.MISS && TranspositionTableArray.depth(ttEntry) >= (ctx.maxPlies - ply)) { // Compare with remaining depth
+            ctx.ttHits++;
+            int ttScore = TranspositionTableArray.score(ttEntry);
+            int ttType = TranspositionTableArray.type(ttEntry);
+            if (ttType == TranspositionTableArray.EXACT_SCORE) {
+                return ttScore;
+            } else if (ttType == TranspositionTableArray.LOWER_BOUND) {
+                alpha = Math.max(alpha, ttScore);
+            } else if (ttType == TranspositionTableArray.UPPER_BOUND) {
+                beta = Math.min(beta, ttScore);
+            }
+            if (alpha >= beta) {
+                return ttScore; // Or alpha/beta depending on bound type, but score should be fine for cutoffs
+            }
+        }
+
+        /* ---------- hard stops: out of time OR too deep ------------------------ */
+        if ( ply >= ctx.maxPlies || ctx.stopped) { //System.currentTimeMillis() - startTime > timeLimitMs ||
+            return quiesce(ctx, board, alpha, beta, maximizingPlayer, ply);
+        }
+
+        /* ---------- game-ending positions -------------------------------------- */
+        Player prev = (board.getCurrentPlayer() == Player.RED) ? Player.BLUE : Player.RED;
+        if (Board.checkplayerWon(board, prev)) {         // last mover just won
+            return Eval.evaluate(board);
+        }
+
+        /* ---------- null move, in null-window nodes only ----------------------- */
+        if ((long) beta - alpha == 1) {
+            int nullMoveScore = tryNullMove(ctx, board, maximizingPlayer, alpha, beta, startTime, timeLimitMs, ply, true);
+            if (nullMoveScore != NO_CUTOFF) return nullMoveScore;
+        }
+
+        /* ---------- reverse futility, razoring, futility (null-window nodes) --- */
+        int staticEval = (long) beta - alpha == 1 ? frontierEval(ctx, board, ply) : NO_CUTOFF;
+        int frontierScore = tryFrontierCutoff(ctx, board, staticEval, maximizingPlayer, alpha, beta, ply);
+        if (frontierScore != NO_CUTOFF) return frontierScore;
+        int futilityValue = futilityValue(ctx, staticEval, maximizingPlayer, alpha, beta, ply);
+
+        /* ---------- moves in stages, generated only as far as they are needed ---- */
+        // If a best move was found in TT, try it first
+        int ttMove = ttEntry != TranspositionTableArray.MISS ? TranspositionTableArray.move(ttEntry) : PackedMove.NONE;
+        MovePicker picker = ctx.movePickerAt(ply);
+        picker.reset(board, ttMove, ply, ctx);
+        MoveList quiets = ctx.searchedQuietsAt(ply);
+        int firstMove = picker.next();
+        if (firstMove == PackedMove.NONE) {               // stalemate or no moves
+            return Eval.evaluate(board);
+        }
+
+        /* ---------- standard alpha–beta recursion ------------------------------ */
+        int bestScore;
+        int bestMoveForTT;
+
+        if (maximizingPlayer) {
+            bestScore = Integer.MIN_VALUE;
+
+            //Besten Move mit Vollem Alpha Beta Fenster durchsuchen
+            if (isQuiet(board, firstMove)) quiets.add(firstMove);
+            ctx.setMoveAt(ply, firstMove);
+            board.doMove(firstMove);
+            bestScore = minimaxAlphaBetaPVS(ctx, board, false, alpha, beta, startTime, timeLimitMs, ply + 1);
+            board.undoMove();
+            ctx.basicSearches++;
+
+            bestMoveForTT = firstMove;
+            alpha = Math.max(alpha, bestScore);
+            if (alpha >= beta) onCutoff(ctx, board, firstMove, 0, picker.stage(), ply, quiets, quiets.size());
+
+            for (int i = 1, m; alpha < beta && (m = picker.next()) != PackedMove.NONE; i++) {
+                if (futilityValue != NO_CUTOFF && isQuiet(board, m)) {
+                    ctx.futilityPrunes++;
+                    bestScore = Math.max(bestScore, futilityValue);
+                    continue;
+                }
+                int reduction = lateMoveReduction(ctx, board, m, i, ply);
+                if (isQuiet(board, m)) quiets.add(m);
+                ctx.setMoveAt(ply, m);
+                board.doMove(m);
+                //späte ruhige Züge zuerst mit reduzierter Tiefe durchsuchen
+                int score = reduction > 0 ? reducedSearch(ctx, board, true, alpha, beta, startTime, timeLimitMs, ply, reduction, true) : 0;
+                if (reduction == 0 || score > alpha) {
+                    if (reduction > 0) ctx.lmrReSearches++;
+                    //alle anderen Moves mti Null Window durchsuchen
+                    score = minimaxAlphaBetaPVS(ctx, board, false, alpha, alpha+1, startTime, timeLimitMs, ply + 1);
+                }
+                ctx.basicSearches++;
+                //re-search falls score im Fenster liegt
+                if(score > alpha && score < beta){
+                    //re-search mit Fenster [alpha;beta]
+                    ctx.reSearches++;
+                    score = minimaxAlphaBetaPVS(ctx, board, false, alpha, beta, startTime, timeLimitMs, ply + 1);
+                    if(score > alpha){
+                        alpha = score;
+                    }
+                }
+                board.undoMove();
+
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMoveForTT = m;
+                }
+                alpha = Math.max(alpha, score);
+                if (alpha >= beta) {
+                    // killer move, history and countermove of the move that caused the cutoff
+                    onCutoff(ctx, board, m, i, picker.stage(), ply, quiets, quiets.size());
+                    break;
+                }
+            }
+        } else { // minimizing player
+            bestScore = Integer.MAX_VALUE;
+
+            //Besten Move mit Vollem Alpha Beta Fenster durchsuchen
+            if (isQuiet(board, firstMove)) quiets.add(firstMove);
+            ctx.setMoveAt(ply, firstMove);
+            board.doMove(firstMove);
+            bestScore = minimaxAlphaBetaPVS(ctx, board, true, alpha, beta, startTime, timeLimitMs, ply + 1);
+            board.undoMove();
+            ctx.basicSearches++;
+
+            bestMoveForTT = firstMove;
+            beta = Math.min(beta, bestScore);
+            if (beta <= alpha) onCutoff(ctx, board, firstMove, 0, picker.stage(), ply, quiets, quiets.size());
+
+            for (int i = 1, m; alpha < beta && (m = picker.next()) != PackedMove.NONE; i++) {
+                if (futilityValue != NO_CUTOFF && isQuiet(board, m)) {
+                    ctx.futilityPrunes++;
+                    bestScore = Math.min(bestScore, futilityValue);
+                    continue;
+                }
+                int reduction = lateMoveReduction(ctx, board, m, i, ply);
+                if (isQuiet(board, m)) quiets.add(m);
+                ctx.setMoveAt(ply, m);
+                board.doMove(m);
+                //späte ruhige Züge zuerst mit reduzierter Tiefe durchsuchen
+                int score = reduction > 0 ? reducedSearch(ctx, board, false, alpha, beta, startTime, timeLimitMs, ply, reduction, true) : 0;
+                if (reduction == 0 || score < beta) {
+                    if (reduction > 0) ctx.lmrReSearches++;
+                    score = minimaxAlphaBetaPVS(ctx, board, true, beta-1, beta, startTime, timeLimitMs, ply + 1);
+                }
+                ctx.basicSearches++;
+
+                //re-search falls score im Fenster liegt
+                if(score > alpha && score < beta){
+                    //re-search mit Fenster [alpha;beta]
+                    ctx.reSearches++;
+                    score = minimaxAlphaBetaPVS(ctx, board, true, alpha, beta, startTime, timeLimitMs, ply + 1);
+                    if(score < beta){
+                        beta = score;
+                    }
+                }
+                board.undoMove();
+
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestMoveForTT = m;
+                }
+                beta = Math.min(beta, score);
+                if (beta <= alpha) {
+                    // killer move, history and countermove of the move that caused the cutoff
+                    onCutoff(ctx, board, m, i, picker.stage(), ply, quiets, quiets.size());
+                    break;
+                }
+            }
+        }
+
+        // Store result in Transposition Table
+        int entryType;
+        if (bestScore <= originalAlpha) { // Failed low (upper bound)
+            entryType = TranspositionTableArray.UPPER_BOUND;
+        } else if (bestScore >= originalBeta) { // Failed high (lower bound)
+            entryType = TranspositionTableArray.LOWER_BOUND;
+        } else { // Exact score
+            entryType = TranspositionTableArray.EXACT_SCORE;
+        }
+        // a stopped helper returns half-searched scores, keep them out of the shared TT
+        if (ctx.stopped) return bestScore;
+        transpositionTable.store(zobristHash, bestScore, (short) (ctx.maxPlies - ply), (byte) entryType, bestMoveForTT);
+        return bestScore;
+    }
+
+    // -----------------------------------------------------------------------------
+    //  Null-move pruning
+    // -----------------------------------------------------------------------------
+
+    // remaining depth from which a node tries a null move
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    // returned by tryNullMove if the node has to be searched normally; never a cutoff score, see there
+    private static final int NO_CUTOFF = Integer.MIN_VALUE;
+
+    /**
+     * Null-move pruning: the side to move passes and the opponent gets a search reduced by R = 2 (3 from depth 7 on).
+     * If the opponent still cannot get below beta (above alpha for blue), a real move would do at least as well and the
+     * node is cut off. That fails in zugzwang, which Guard &amp; Towers has when towers block each other, so every null-move
+     * cutoff is verified by a normal search of this node, reduced by R and without null moves below it.
+     *
+     * @return the verified cutoff score, or {@link #NO_CUTOFF}. Cutoffs are ≥ beta &gt; MIN_VALUE for red and ≤ alpha for
+     *         blue, where alpha &gt; MIN_VALUE because the static evaluation had to be ≤ alpha.
+     */
+    private int tryNullMove(SearchContext ctx, Board board, boolean maximizingPlayer, int alpha, int beta, long startTime, long timeLimitMs, int ply, boolean pvs) {
+        int depth = ctx.maxPlies - ply;
+        if (!nullMovePruning || depth < NULL_MOVE_MIN_DEPTH || ctx.nullMoveVerifications > 0 || ctx.afterNullMove(ply)) {
+            return NO_CUTOFF;
+        }
+        if (maximizingPlayer ? beta == Integer.MIN_VALUE : alpha == Integer.MAX_VALUE) return NO_CUTOFF;
+        // a lone guard has hardly any waiting moves, passing would overrate its position
+        long own = maximizingPlayer ? board.getRed() : board.getBlue();
+        if ((own & ~board.getGuards()) == 0) return NO_CUTOFF;
+        // only worth trying if the position already looks good enough without moving; the window around the bound lets
+        // the evaluation skip its lazy part whenever that cannot change the decision
+        int staticEval = maximizingPlayer ? Eval.evaluate(board, beta - 1, beta) : Eval.evaluate(board, alpha, alpha + 1);
+        if (maximizingPlayer ? staticEval < beta : staticEval > alpha) return NO_CUTOFF;
+
+        int reduction = depth > 6 ? 3 : 2;
+        // null window at the bound that decides the cutoff
+        int nullAlpha = maximizingPlayer ? beta - 1 : alpha;
+        int nullBeta = maximizingPlayer ? beta : alpha + 1;
+
+        board.doNullMove();
+        ctx.setNullMove(ply, true);
+        ctx.setMoveAt(ply, PackedMove.NONE);
+        ctx.maxPlies -= reduction;
+        int nullScore = search(ctx, board, !maximizingPlayer, nullAlpha, nullBeta, startTime, timeLimitMs, ply + 1, pvs);
+        ctx.maxPlies += reduction;
+        ctx.setNullMove(ply, false);
+        board.undoMove();
+        if (maximizingPlayer ? nullScore < beta : nullScore > alpha) return NO_CUTOFF;
+
+        // verification: this node with real moves, at the same reduced depth
+        ctx.maxPlies -= reduction;
+        ctx.nullMoveVerifications++;
+        int verified = search(ctx, board, maximizingPlayer, nullAlpha, nullBeta, startTime, timeLimitMs, ply, pvs);
+        ctx.nullMoveVerifications--;
+        ctx.maxPlies += reduction;
+        if (maximizingPlayer ? verified < beta : verified > alpha) {
+            ctx.nullMoveVerifyFails++;
+            return NO_CUTOFF;
+        }
+        ctx.nullMoveCutoffs++;
+        return verified;
+    }
+
+    // -----------------------------------------------------------------------------
+    //  Late move reductions
+    // -----------------------------------------------------------------------------
+
+    // remaining depth from which late moves are reduced
+    private static final int LMR_MIN_DEPTH = 3;
+    // moves before this index in the ordered list (TT move, best ordered moves) are always searched at full depth
+    private static final int LMR_MIN_MOVE_INDEX = 3;
+    private static final int LMR_TABLE_SIZE = 64;
+    // reduction in plies by remaining depth and move index, grows with the logarithm of both
+    private static final int[][] LMR_TABLE = new int[LMR_TABLE_SIZE][LMR_TABLE_SIZE];
+
+    static {
+        for (int depth = 1; depth < LMR_TABLE_SIZE; depth++) {
+            for (int index = 1; index < LMR_TABLE_SIZE; index++) {
+                LMR_TABLE[depth][index] = (int) (0.75 + Math.log(depth) * Math.log(index) / 2.25);
+            }
+        }
+    }
+
+    /**
+     * Late move reductions: with good move ordering a cutoff comes from one of the first moves, so quiet moves late in
+     * the list are first searched with a null window and a depth reduced by {@link #LMR_TABLE}. Only if that search
+     * beats the bound is the move searched again at full depth. Captures, guard moves and killer moves are never reduced.
+     *
+     * @param board position before {@code move}
+     * @return the reduction in plies, 0 = search at full depth; leaves at least one ply below the move
+     */
+    private int lateMoveReduction(SearchContext ctx, Board board, int move, int moveIndex, int ply) {
+        int depth = ctx.maxPlies - ply;
+        if (!lateMoveReductions || depth < LMR_MIN_DEPTH || moveIndex < LMR_MIN_MOVE_INDEX) return 0;
+        if (!isQuiet(board, move) || ctx.isKillerMove(move, ply)) return 0;
+        int reduction = LMR_TABLE[Math.min(depth, LMR_TABLE_SIZE - 1)][Math.min(moveIndex, LMR_TABLE_SIZE - 1)];
+        return Math.min(reduction, depth - 2);
+    }
+
+    /**
+     * Reduced null-window search of the move just made at {@code ply}, at alpha for red and at beta for blue.
+     *
+     * @param maximizingPlayer side that made the move
+     */
+    private int reducedSearch(SearchContext ctx, Board board, boolean maximizingPlayer, int alpha, int beta, long startTime, long timeLimitMs, int ply, int reduction, boolean pvs) {
+        ctx.lmrReductions++;
+        ctx.maxPlies -= reduction;
+        int score = maximizingPlayer
+                ? search(ctx, board, false, alpha, alpha + 1, startTime, timeLimitMs, ply + 1, pvs)
+                : search(ctx, board, true, beta - 1, beta, startTime, timeLimitMs, ply + 1, pvs);
+        ctx.maxPlies += reduction;
+        return score;
+    }
+
+    // -----------------------------------------------------------------------------
+    //  Static-eval pruning near the leaves
+    // -----------------------------------------------------------------------------
+
+    // margins by remaining depth (index 0 unused). A quiet move rarely changes the evaluation by more than a few
+    // positional terms; the margins stay well below MATERIAL_PER_PIECE so a capture is never assumed away
+    private static final int[] FUTILITY_MARGIN = {0, 250, 450};
+    private static final int[] REVERSE_FUTILITY_MARGIN = {0, 200, 400, 600};
+    private static final int[] RAZOR_MARGIN = {0, 350, 550};
+
+    /**
+     * @return the static evaluation if one of the frontier prunings applies to this node, else {@link #NO_CUTOFF}
+     */
+    private int frontierEval(SearchContext ctx, Board board, int ply) {
+        int depth = ctx.maxPlies - ply;
+        if (!futilityPruning || depth >= REVERSE_FUTILITY_MARGIN.length) return NO_CUTOFF;
+        int staticEval = Eval.evaluate(board);
+        // won and lost positions are left to the search
+        return Eval.isWinScore(staticEval) ? NO_CUTOFF : staticEval;
+    }
+
+    /**
+     * Reverse futility pruning: the static evaluation is so far beyond the bound (beta for red, alpha for blue) that no
+     * reply within the remaining depth brings it back. Razoring: the evaluation is so far behind the other bound that
+     * only a capture could help, so the quiescence search decides, and its score is returned if it confirms the node fails.
+     *
+     * @param staticEval from {@link #frontierEval}, NO_CUTOFF to skip
+     * @return the cutoff score or {@link #NO_CUTOFF}
+     */
+    private int tryFrontierCutoff(SearchContext ctx, Board board, int staticEval, boolean maximizingPlayer, int alpha, int beta, int ply) {
+        if (staticEval == NO_CUTOFF) return NO_CUTOFF;
+        int depth = ctx.maxPlies - ply;
+        int margin = REVERSE_FUTILITY_MARGIN[depth];
+        if (maximizingPlayer ? staticEval - margin >= beta : staticEval + margin <= alpha) {
+            ctx.reverseFutilityCutoffs++;
+            return staticEval;
+        }
+        if (depth >= RAZOR_MARGIN.length) return NO_CUTOFF;
+        margin = RAZOR_MARGIN[depth];
+        if (maximizingPlayer ? staticEval + margin <= alpha : staticEval - margin >= beta) {
+            int score = quiesce(ctx, board, alpha, beta, maximizingPlayer, ply);
+            // fail-low (fail-high for blue) confirmed; alpha > MIN_VALUE here, so the score is never NO_CUTOFF
+            if (maximizingPlayer ? score <= alpha : score >= beta) {
+                ctx.razorCutoffs++;
+                return score;
+            }
+        }
+        return NO_CUTOFF;
+    }
+
+    /**
+     * Futility pruning: at the last plies quiet moves are skipped when the static evaluation plus a margin cannot
+     * reach alpha (minus the margin cannot get below beta for blue).
+     *
+     * @return the bound the skipped moves are scored with, or {@link #NO_CUTOFF} if no move may be skipped
+     */
+    private int futilityValue(SearchContext ctx, int staticEval, boolean maximizingPlayer, int alpha, int beta, int ply) {
+        int depth = ctx.maxPlies - ply;
+        if (staticEval == NO_CUTOFF || depth >= FUTILITY_MARGIN.length) return NO_CUTOFF;
+        int value = maximizingPlayer ? staticEval + FUTILITY_MARGIN[depth] : staticEval - FUTILITY_MARGIN[depth];
+        return (maximizingPlayer ? value <= alpha : value >= beta) ? value : NO_CUTOFF;
+    }
+
+    /**
+     * @param board position before {@code move}
+     * @return true for moves that neither capture nor move a guard, the moves the pruning and reductions may touch
+     */
+    private static boolean isQuiet(Board board, int move) {
+        long enemy = board.getCurrentPlayer() == Player.RED ? board.getBlue() : board.getRed();
+        boolean capture = (enemy & (1L << PackedMove.to(move))) != 0;
+        boolean guardMove = (board.getGuards() & (1L << PackedMove.from(move))) != 0;
+        return !capture && !guardMove;
+    }
+
+    /**
+     * Beta cutoff by {@code m}: killer move and cutoff statistics, and for a quiet move a depth² history bonus, the same
+     * malus for the quiet moves searched before it in vain and the countermove to the opponent's last move.
+     *
+     * @param board    position before the move
+     * @param index    position of the move in the search order
+     * @param stage    ordering stage of the move, see {@link MoveOrdering#stageOf(int)}
+     * @param searched the first {@code count} entries are the moves searched at this node; moves skipped without a search
+     *                 (futility pruning) must not be among them
+     */
+    private static void onCutoff(SearchContext ctx, Board board, int m, int index, int stage, int ply, MoveList searched, int count) {
+        ctx.cutoffs++;
+        ctx.updateKillerMove(m, ply);
+        ctx.recordCutoff(index, stage);
+        if (!isQuiet(board, m)) return;
+        boolean red = board.getCurrentPlayer() == Player.RED;
+        int bonus = SearchContext.historyBonus(ctx.maxPlies - ply);
+        ctx.updateHistory(red, m, bonus);
+        for (int i = 0; i < count; i++) {
+            int q = searched.get(i);
+            if (q != m && isQuiet(board, q)) ctx.updateHistory(red, q, -bonus);
+        }
+        ctx.updateCounterMove(red, ply, m);
+    }
+
+    private int search(SearchContext ctx, Board board, boolean maximizingPlayer, int alpha, int beta, long startTime, long timeLimitMs, int ply, boolean pvs) {
+        return pvs ? minimaxAlphaBetaPVS(ctx, board, maximizingPlayer, alpha, beta, startTime, timeLimitMs, ply)
+                : minimaxAlphaBeta(ctx, board, maximizingPlayer, alpha, beta, startTime, timeLimitMs, ply);
+    }
+
+    // -----------------------------------------------------------------------------
+    //  Lazy SMP
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Sets the number of search threads (at least 1). With n threads, the pickMove and pickMovePVS variants run n - 1
+     * helpers with the same iterative deepening search next to the main thread, sharing their results through the
+     * transposition table; the move is still chosen by the main thread. pickMoveYBWC uses a pool of n workers instead.
+     * Call it between searches.
+     */
+    public void setThreads(int threads) {
+        if (helperPool != null) helperPool.shutdownNow();
+        if (splitPool != null) {
+            splitPool.shutdownNow();
+            splitPool = null;
+        }
+        createThreads(threads);
+    }
+
+    // helper contexts and pool for setThreads and the constructor, which must not call an overridable method
+    private void createThreads(int threads) {
+        int helpers = Math.max(1, threads) - 1;
+        helperContexts = new SearchContext[helpers];
+        for (int i = 0; i < helpers; i++) {
+            helperContexts[i] = new SearchContext(i + 1);
+        }
+        helperPool = helpers == 0 ? null : Executors.newFixedThreadPool(helpers, r -> {
+            Thread t = new Thread(r, "search-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getThreads() {
+        return helperContexts.length + 1;
+    }
+
+    private List<Future<?>> startHelpers(Board board, List<MovePair> rootMoves, long startTime, long timeLimit, boolean pvs) {
+        List<Future<?>> futures = new ArrayList<>(helperContexts.length);
+        for (SearchContext ctx : helperContexts) {
+            ctx.stopped = false;
+            ctx.resetCounters();
+            ctx.resetKillerMoves();
+            ctx.resetHistory();
+            List<MovePair> moves = List.copyOf(rootMoves);
+            futures.add(helperPool.submit(() -> helperSearch(ctx, board.copy(), moves, startTime, timeLimit, pvs)));
+        }
+        return futures;
+    }
+
+    private void stopHelpers(List<Future<?>> futures) {
+        for (SearchContext ctx : helperContexts) {
+            ctx.stopped = true;
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("search helper failed", e);
+            }
+        }
+        helperNodesVisited = 0;
+        for (SearchContext ctx : helperContexts) {
+            helperNodesVisited += ctx.nodesVisited;
+        }
+    }
+
+    /**
+     * Iterative deepening of one helper thread. Helpers start one or two plies deeper than the main thread and search the
+     * root moves in a rotated order, so the threads spread over different parts of the tree instead of repeating each
+     * other; the main thread profits through the TT entries they leave behind.
+     */
+    private void helperSearch(SearchContext ctx, Board board, List<MovePair> rootMoves, long startTime, long timeLimit, boolean pvs) {
+        int n = rootMoves.size();
+        if (n == 0) return;
+        int offset = ctx.id % n;
+        ctx.maxPlies = 1 + (ctx.id & 1);
+        while (!ctx.stopped && System.currentTimeMillis() - startTime < timeLimit && ctx.maxPlies < MAX_SEARCH_DEPTH) {
+            for (int i = 0; i < n && !ctx.stopped; i++) {
+                board.doMove(rootMoves.get((i + offset) % n));
+                boolean maximizing = board.getCurrentPlayer() == Player.RED;
+                if (pvs) {
+                    minimaxAlphaBetaPVS(ctx, board, maximizing, Integer.MIN_VALUE, Integer.MAX_VALUE, startTime, timeLimit, 0);
+                } else {
+                    minimaxAlphaBeta(ctx, board, maximizing, Integer.MIN_VALUE, Integer.MAX_VALUE, startTime, timeLimit, 0);
+                }
+                board.undoMove();
+            }
+            ctx.maxPlies++;
+        }
+    }
+
+    // -----------------------------------------------------------------------------
+    //  Young Brothers Wait
+    // -----------------------------------------------------------------------------
+
+    // nodes with less remaining depth search all children themselves, their subtrees are too small to be worth a task
+    private static final int MIN_SPLIT_DEPTH = 2;
+
+    /**
+     * A node whose younger brothers are searched as parallel tasks. Every task reads the current window when it starts
+     * and narrows it with its result; a beta cutoff cancels the split point and with it all nodes below it.
+     */
+    private static final class SplitPoint {
+        final SplitPoint parent;
+        final boolean maximizing;
+        int alpha;
+        int beta;
+        int bestScore;
+        int bestMove;
+        volatile boolean cancelled = false;
+        // moves whose search completed: the eldest brothers, then the younger ones in the order their results came in.
+        // After a cutoff, brothers that never started or stopped halfway are missing, they get no history malus.
+        final MoveList searched = new MoveList();
+
+        SplitPoint(SplitPoint parent, boolean maximizing, int alpha, int beta, int bestScore, int bestMove) {
+            this.parent = parent;
+            this.maximizing = maximizing;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.bestScore = bestScore;
+            this.bestMove = bestMove;
+        }
+
+        synchronized int alpha() {
+            return alpha;
+        }
+
+        synchronized int beta() {
+            return beta;
+        }
+
+        /**
+         * Takes the score of one brother into account. Results that arrive after a cancellation are incomplete and ignored.
+         */
+        synchronized void update(int move, int score) {
+            if (isCancelled()) return;
+            searched.add(move);
+            if (maximizing ? score > bestScore : score < bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+            if (maximizing) {
+                alpha = Math.max(alpha, score);
+            } else {
+                beta = Math.min(beta, score);
+            }
+            if (alpha >= beta) cancelled = true;   // cutoff, the remaining brothers are not needed
+        }
+
+        /**
+         * @return true if this split point or one above it had a cutoff
+         */
+        boolean isCancelled() {
+            for (SplitPoint sp = this; sp != null; sp = sp.parent) {
+                if (sp.cancelled) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Fixed-depth search like {@link #pickMoveTestVersion(Board, int)}, but parallelised with Young Brothers Wait instead
+     * of Lazy SMP: every node searches its first child alone, then hands the remaining children to a ForkJoinPool of
+     * {@link #getThreads()} workers. Meant to compare both schemes on the same benchmark (see ParallelSearchBenchmark).
+     */
+    public MovePair pickMoveYBWC(Board board, int maxply) {
+        resetCounters();
+        resetMaxPlies();
+        mainContext.resetKillerMoves();
+        mainContext.resetHistory();
+        for (SearchContext ctx : splitContexts) {
+            ctx.resetCounters();
+            ctx.resetKillerMoves();
+            ctx.resetHistory();
+        }
+        transpositionTable.newSearch();
+        if (splitPool == null) splitPool = new ForkJoinPool(getThreads());
+
+        Board searchBoard = board.copy();   // root node, split tasks work on their own copies
+        boolean maximizingPlayer = board.getCurrentPlayer() != Player.BLUE;
+        long startTime = System.currentTimeMillis();
+        MovePair bestMove = null;
+        for (int depth = 0; depth <= maxply; depth++) {
+            // the root is ply 0 here, so each root move gets the same depth as in pickMoveTestVersion's iteration
+            mainContext.maxPlies = depth + 1;
+            ybwcRootMove = PackedMove.NONE;
+            splitPool.invoke(ForkJoinTask.adapt(() ->
+                    ybwc(mainContext, searchBoard, maximizingPlayer, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, null)));
+            if (ybwcRootMove != PackedMove.NONE) bestMove = PackedMove.toMovePair(ybwcRootMove);
+        }
+        publishStats();
+        for (SearchContext ctx : splitContexts) {
+            helperNodesVisited += ctx.nodesVisited;
+        }
+        if (verbose) {
+            System.out.printf("YBWC depth %d, %d threads: %d nodes (%d in split tasks), %d ms%n", maxply, getThreads(),
+                    nodesVisited + helperNodesVisited, helperNodesVisited, System.currentTimeMillis() - startTime);
+        }
+        return bestMove;
+    }
+
+    private int ybwc(SearchContext ctx, Board board, boolean maximizingPlayer, int alpha, int beta, int ply, SplitPoint parent) {
+        ctx.nodesVisited++;
+        if (parent != null && parent.isCancelled()) return 0;   // the caller ignores the score
+
+        /* ---------- Zobrist Hashing and Transposition Table Lookup ------------- */
+        long zobristHash = board.getZobristHash();
+        long ttEntry = transpositionTable.probe(zobristHash);
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+
+        // not at the root, which has to report its best move
+        if (ply > 0 && ttEntry != TranspositionTableArray.MISS && TranspositionTableArray.depth(ttEntry) >= (ctx.maxPlies - ply)) {
+            ctx.ttHits++;
+            int ttScore = TranspositionTableArray.score(ttEntry);
+            int ttType = TranspositionTableArray.type(ttEntry);
+            if (ttType == TranspositionTableArray.EXACT_SCORE) {
+                return ttScore;
+            } else if (ttType == TranspositionTableArray.LOWER_BOUND) {
+                alpha = Math.max(alpha, ttScore);
+            } else if (ttType == TranspositionTableArray.UPPER_BOUND) {
+                beta = Math.min(beta, ttScore);
+            }
+            if (alpha >= beta) {
+                return ttScore;
+            }
+        }
+
+        if (ply >= ctx.maxPlies) {
+            return quiesce(ctx, board, alpha, beta, maximizingPlayer, ply);
+        }
+
+        /* ---------- game-ending positions (the root is always searched, like in pickMove) */
+        Player prev = (board.getCurrentPlayer() == Player.RED) ? Player.BLUE : Player.RED;
+        if (ply > 0 && Board.checkplayerWon(board, prev)) {
+            return Eval.evaluate(board);
+        }
+
+        MoveList orderedMoves = ctx.moveListAt(ply);
+        MoveGenerator.generateAllLegalMoves(board, orderedMoves);
+        if (orderedMoves.isEmpty()) {
+            return Eval.evaluate(board);
+        }
+        int ttMove = ttEntry != TranspositionTableArray.MISS ? TranspositionTableArray.move(ttEntry) : PackedMove.NONE;
+        MoveOrdering.orderMovesStaged(orderedMoves, board, ttMove, ply, ctx);
+
+        /* ---------- eldest brother first (all children below MIN_SPLIT_DEPTH) --- */
+        int bestScore = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = PackedMove.NONE;
+        int n = orderedMoves.size();
+        int sequential = ctx.maxPlies - ply >= MIN_SPLIT_DEPTH ? 1 : n;
+        int i = 0;
+        for (; i < sequential; i++) {
+            int m = orderedMoves.get(i);
+            ctx.setMoveAt(ply, m);
+            board.doMove(m);
+            int score = ybwc(ctx, board, !maximizingPlayer, alpha, beta, ply + 1, parent);
+            board.undoMove();
+            if (parent != null && parent.isCancelled()) return bestScore;
+            if (maximizingPlayer ? score > bestScore : score < bestScore) {
+                bestScore = score;
+                bestMove = m;
+            }
+            if (maximizingPlayer) {
+                alpha = Math.max(alpha, score);
+            } else {
+                beta = Math.min(beta, score);
+            }
+            if (alpha >= beta) {
+                onCutoff(ctx, board, m, i, MoveOrdering.stageOf(orderedMoves.getScore(i)), ply, orderedMoves, i);
+                break;
+            }
+        }
+
+        /* ---------- younger brothers in parallel ------------------------------- */
+        if (i < n && alpha < beta) {
+            SplitPoint sp = new SplitPoint(parent, maximizingPlayer, alpha, beta, bestScore, bestMove);
+            for (int j = 0; j < i; j++) sp.searched.add(orderedMoves.get(j));
+            List<ForkJoinTask<?>> brothers = new ArrayList<>(n - i);
+            int maxPlies = ctx.maxPlies;
+            for (; i < n; i++) {
+                int m = orderedMoves.get(i);
+                brothers.add(ForkJoinTask.adapt(() -> searchBrother(sp, board, m, maxPlies, ply)));
+            }
+            // board stays untouched until all brothers are done, they copy it when they start
+            ForkJoinTask.invokeAll(brothers);
+            if (parent != null && parent.isCancelled()) return bestScore;
+            synchronized (sp) {
+                bestScore = sp.bestScore;
+                bestMove = sp.bestMove;
+                if (sp.cancelled) {
+                    int index = orderedMoves.indexOf(bestMove);
+                    onCutoff(ctx, board, bestMove, index, MoveOrdering.stageOf(orderedMoves.getScore(index)), ply,
+                            sp.searched, sp.searched.size());
+                }
+            }
+        }
+
+        if (ply == 0) ybwcRootMove = bestMove;
+
+        int entryType;
+        if (bestScore <= originalAlpha) {
+            entryType = TranspositionTableArray.UPPER_BOUND;
+        } else if (bestScore >= originalBeta) {
+            entryType = TranspositionTableArray.LOWER_BOUND;
+        } else {
+            entryType = TranspositionTableArray.EXACT_SCORE;
+        }
+        transpositionTable.store(zobristHash, bestScore, (short) (ctx.maxPlies - ply), (byte) entryType, bestMove);
+        return bestScore;
+    }
+
+    /**
+     * Task body for one younger brother: searches {@code move} on a copy of the split node's board with a context of its
+     * own, since the worker may be interleaving other tasks.
+     */
+    private void searchBrother(SplitPoint sp, Board splitBoard, int move, int maxPlies, int ply) {
+        if (sp.isCancelled()) return;
+        SearchContext ctx = idleSplitContexts.pollFirst();
+        if (ctx == null) {
+            ctx = new SearchContext(splitContexts.size() + 1);
+            splitContexts.add(ctx);
+        }
+        try {
+            ctx.maxPlies = maxPlies;
+            Board board = splitBoard.copy();
+            ctx.setMoveAt(ply, move);
+            board.doMove(move);
+            int score = ybwc(ctx, board, !sp.maximizing, sp.alpha(), sp.beta(), ply + 1, sp);
+            sp.update(move, score);
+        } finally {
+            idleSplitContexts.addFirst(ctx);
+        }
+    }
+
+    /**
+     * Copies the counters of the main search thread into the statistics fields.
+     */
+    private void publishStats() {
+        nodesVisited = mainContext.nodesVisited;
+        cutoffs = mainContext.cutoffs;
+        ttHits = mainContext.ttHits;
+        reSearches = mainContext.reSearches;
+        basicSearches = mainContext.basicSearches;
+        nullMoveCutoffs = mainContext.nullMoveCutoffs;
+        nullMoveVerifyFails = mainContext.nullMoveVerifyFails;
+        lmrReductions = mainContext.lmrReductions;
+        lmrReSearches = mainContext.lmrReSearches;
+        futilityPrunes = mainContext.futilityPrunes;
+        reverseFutilityCutoffs = mainContext.reverseFutilityCutoffs;
+        razorCutoffs = mainContext.razorCutoffs;
+        quiesceNodes = mainContext.quiesceNodes;
+        deltaPrunes = mainContext.deltaPrunes;
+        seePrunes = mainContext.seePrunes;
+        firstMoveCutoffs = mainContext.firstMoveCutoffs;
+        quietGenerations = mainContext.quietGenerations;
+        System.arraycopy(mainContext.cutoffsByStage, 0, cutoffsByStage, 0, MoveOrdering.STAGES);
+    }
+
+    public void evaluate(int moveCounter, int legalMovesSize, long startTime) {
+
+        /* 1 — compute current ratio safely */
+        double thisRatio = nodesVisited == 0 ? 0.0 : 100.0 * cutoffs / nodesVisited;
+
+        /* 2 — update running average */
+        percent += thisRatio;
+        runs++;
+        average = percent / runs;
+
+        /* 3 — print everything once, after it is correct */
+        System.out.println("\nEvaluating AI performance:");
+        System.out.printf("Total cut-offs:                %d%n", cutoffs);
+        System.out.printf("Transposition-table hits:      %d%n", ttHits);
+        System.out.printf("αβ-cut ratio this search:      %.1f%%%n", thisRatio);
+        System.out.printf("αβ-cut ratio running average:  %.1f%%%n", average);
+
+        /* 4 — moves evaluated only in the last pass */
+        int movesLastPass = moveCounter % legalMovesSize;
+        System.out.printf("Moves searched in last pass:   %d / %d%n", movesLastPass == 0 ? legalMovesSize : movesLastPass, legalMovesSize);
+
+        /* 5 — real search depth reached (last completed ply) */
+        System.out.printf("Depth reached:                 %d plies%n", depthReached());
+
+        double ttFillRate = (transpositionTable.size() / (double) transpositionTable.capacity()) * 100;
+        System.out.printf("TT fill rate:                  %.2f%%%n", ttFillRate);
+
+        System.out.printf("Time for pickMove():           %d ms%n", System.currentTimeMillis() - startTime);
+        System.out.printf("Total nodes visited:           %d%n", nodesVisited);
+        System.out.printf("Number of re-searches:         %d%n", reSearches);
+        System.out.printf("Number of basicSearches:       %d%n", basicSearches);
+        System.out.printf("Pct re-searches:               %d%n", reSearches * 100 / basicSearches);
+        System.out.printf("Aspiration fails high / low:   %d / %d%n", aspirationFailsHigh, aspirationFailsLow);
+        System.out.printf("Null-move cutoffs / refuted:   %d / %d%n", nullMoveCutoffs, nullMoveVerifyFails);
+        System.out.printf("LMR reductions / re-searches:  %d / %d%n", lmrReductions, lmrReSearches);
+        System.out.printf("Futility / reverse / razor:    %d / %d / %d%n", futilityPrunes, reverseFutilityCutoffs, razorCutoffs);
+        System.out.printf("Quiescence nodes / delta cuts: %d / %d%n", quiesceNodes, deltaPrunes);
+        System.out.printf("Losing captures skipped (SEE): %d%n", seePrunes);
+        long interiorCutoffs = Arrays.stream(cutoffsByStage).sum();
+        System.out.printf("Cutoffs by the first move:     %.1f%%%n", interiorCutoffs == 0 ? 0.0 : firstMoveCutoffs * 100.0 / interiorCutoffs);
+        StringBuilder stages = new StringBuilder();
+        for (int stage = 0; stage < MoveOrdering.STAGES; stage++) {
+            if (stage > 0) stages.append(", ");
+            stages.append(MoveOrdering.STAGE_NAMES[stage]).append(' ').append(cutoffsByStage[stage]);
+        }
+        System.out.printf("Cutoffs by ordering stage:     %s%n", stages);
+        System.out.printf("Nodes that generated quiets:   %d%n", quietGenerations);
+
+        if (helperContexts.length > 0) {
+            int helperDepth = 0;
+            for (SearchContext ctx : helperContexts) {
+                helperDepth = Math.max(helperDepth, ctx.maxPlies - 1);
+            }
+            System.out.printf("Search threads:                %d%n", getThreads());
+            System.out.printf("Helper nodes visited:          %d%n", helperNodesVisited);
+            System.out.printf("Helper depth reached:          %d plies%n", helperDepth);
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        System.out.printf("Nodes/s (all threads):         %d%n", (nodesVisited + helperNodesVisited) * 1000 / elapsed);
+    }
+
+
+    public void resetCounters() {
+        mainContext.resetCounters();
+        helperNodesVisited = 0;
+        nodesVisited = 0;
+        cutoffs = 0;
+        ttHits = 0;
+        reSearches = 0;
+        basicSearches = 1;
+    }
+
+    public void resetMaxPlies() {
+        mainContext.maxPlies = 0;
+    }
+
+    public void clearTT(){
+        transpositionTable.clear();
+    }
+
+    /**
+     * Reallocates the transposition table with {@code sizeMb} MiB (rounded down to a power of two). Call it at startup or
+     * between games, never during a search.
+     */
+    public void setTTSize(int sizeMb) {
+        transpositionTable.resize(sizeMb);
+    }
+
+    public int getTTSizeMb() {
+        return transpositionTable.sizeMb();
+    }
+}
\ No newline at end of file
@@ -1,60 +1,260 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Arrays;
 
+/**
+ * Array based transposition table, safe to share between search threads without locks.
+ * <p>
+ * Each slot stores {@code key ^ data} next to {@code data}. A reader recomputes the key from both words and only
+ * accepts the entry if it matches, so a slot that another thread is writing at the same moment (key word of one entry,
+ * data word of another) reads as a miss instead of a wrong entry. Slots are read and written with opaque accesses,
+ * which keeps every 64-bit word atomic and visible to the other threads without any fences.
+ */
 public class TranspositionTableArray {
     /**
-     * Table size (power of two!) – e.g. 16 MiB = 2 000 000 entries.
+     * Default table size in MiB – 64 MiB = 4M entries à 16 bytes (key + data).
      */
-    public static final int TABLE_SIZE = 1 << 22;
-    private static final int INDEX_MASK = TABLE_SIZE - 1;
+    public static final int DEFAULT_SIZE_MB = 64;
+    /**
+     * System property for the table size in MiB used by AI, e.g. {@code -Dtt.size.mb=1024}.
+     */
+    public static final String SIZE_PROPERTY = "tt.size.mb";
+    // largest size whose entry count still fits a Java array index (2^30 entries)
+    private static final int MAX_SIZE_MB = 16 * 1024;
+    private static final int BYTES_PER_ENTRY = 16;
+    /**
+     * Entries per bucket; a key may live in any slot of its bucket (4 x 8 bytes = half a cache line per array).
+     */
+    public static final int BUCKET_SIZE = 4;
     // Entry types for transposition table
     public static final int EXACT_SCORE = 0;
     public static final int LOWER_BOUND = 1;
     public static final int UPPER_BOUND = 2;
-    private final TTEntry[] table = new TTEntry[TABLE_SIZE];
 
+    /**
+     * Returned by {@link #probe(long)} if the position is not in the table. Stored entries are never 0 (type is kept + 1).
+     */
+    public static final long MISS = 0L;
+
+    // packed data layout: score (bits 0-31) | best move, PackedMove (32-46) | type + 1 (47-48) | depth, signed (49-56)
+    //                    | generation (57-62)
+    private static final int MOVE_SHIFT = 32;
+    private static final int TYPE_SHIFT = 47;
+    private static final int DEPTH_SHIFT = 49;
+    private static final int GENERATION_SHIFT = 57;
+    private static final int GENERATION_MASK = 0x3F;
+    // one generation of age weighs as much as this many plies of depth when choosing the entry to replace
+    private static final int AGE_WEIGHT = 8;
+
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // parallel arrays, slot i holds key ^ entry in keys[i] and the packed entry in data[i] (0 = empty)
+    private long[] keys;
+    private long[] data;
+    private int bucketMask;
+    // bumped by newSearch() once per move decision, entries of older generations are replaced first
+    private volatile int generation = 0;
+
+    /**
+     * Decoded copy of one slot, see {@link #retrieve(long)}. The search itself works on the packed {@code long}.
+     */
     public static final class TTEntry {
-        long zobrist;          // 8 bytes  – full verification key
-        int score;            // 4
-        short depth;            // 2
-        byte type;             // 1  (EXACT / LOWER / UPPER)
-        MovePair best;          // 4…8  (reference)
+        long zobrist;          // full verification key
+        int score;
+        short depth;
+        byte type;             // EXACT / LOWER / UPPER
+        int best;              // packed move (PackedMove), NONE if unknown
+    }
+
+    public TranspositionTableArray() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * @param sizeMb table size in MiB, rounded down to a power of two (see {@link #roundSizeMb(int)})
+     */
+    public TranspositionTableArray(int sizeMb) {
+        allocate(sizeMb);
+    }
+
+    /**
+     * Clamps {@code sizeMb} to 1 ... 16384 MiB and rounds it down to a power of two, so the table never uses more memory
+     * than requested and the bucket index stays a simple mask.
+     */
+    public static int roundSizeMb(int sizeMb) {
+        return Integer.highestOneBit(Math.max(1, Math.min(MAX_SIZE_MB, sizeMb)));
+    }
+
+    /**
+     * Reallocates the table with a new size (meant to be called between games); all entries are lost. If the rounded size
+     * does not change the table is only cleared.
+     */
+    public void resize(int sizeMb) {
+        if (data != null && data.length == entriesFor(sizeMb)) {
+            clear();
+            return;
+        }
+        allocate(sizeMb);
+    }
+
+    private static int entriesFor(int sizeMb) {
+        return (int) (((long) roundSizeMb(sizeMb) << 20) / BYTES_PER_ENTRY);
+    }
+
+    // shared by the constructor and resize, so the constructor calls nothing a subclass could override
+    private void allocate(int sizeMb) {
+        int entries = entriesFor(sizeMb);
+        // drop the old arrays first, so old and new table never have to fit into the heap together
+        keys = null;
+        data = null;
+        keys = new long[entries];
+        data = new long[entries];
+        bucketMask = entries / BUCKET_SIZE - 1;
+    }
+
+    /**
+     * @return number of entries (slots) of the table
+     */
+    public int capacity() {
+        return data.length;
+    }
 
-        // immutable helper for an empty slot
-        static final TTEntry EMPTY = new TTEntry();
+    /**
+     * @return table size in MiB
+     */
+    public int sizeMb() {
+        return (int) (((long) data.length * BYTES_PER_ENTRY) >> 20);
     }
 
-    private static int indexOf(long zobrist) {
-        return (int) (zobrist & INDEX_MASK);   // low bits work fine – hash is random
+    private int bucketOf(long zobrist) {
+        return (int) (zobrist & bucketMask) * BUCKET_SIZE;   // low bits work fine – hash is random
+    }
+
+    /**
+     * Starts a new search generation. Called at the beginning of every move decision, so entries left over from earlier
+     * moves of the game age and give way to new ones instead of squatting on their slots. Must not run concurrently with
+     * a search, like {@link #clear()} and {@link #resize(int)}.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
     }
 
     public void store(long key, int score, short depth, byte type, MovePair best) {
+        store(key, score, depth, type, PackedMove.of(best));
+    }
+
+    /**
+     * Stores an entry in the bucket of {@code key}. An entry for the same key is only overwritten by an equally deep or
+     * deeper result, unless it is from an older generation. Otherwise an empty slot is used, or the slot whose entry is
+     * the least valuable: shallow and old, where one generation of age counts as {@link #AGE_WEIGHT} plies.
+     */
+    public void store(long key, int score, short depth, byte type, int best) {
+        long[] keys = this.keys;
+        long[] data = this.data;
+        int gen = generation;
+        int bucket = bucketOf(key);
+        int victim = bucket;
+        int victimWorth = Integer.MAX_VALUE;
 
-        int idx = indexOf(key);
-        TTEntry cur = table[idx];
-
-        if (cur == null || depth >= cur.depth) {   // keep deeper or empty
-            TTEntry e = new TTEntry();
-            e.zobrist = key;
-            e.score = score;
-            e.depth = depth;
-            e.type = type;
-            e.best = best;
-            table[idx] = e;
+        for (int idx = bucket; idx < bucket + BUCKET_SIZE; idx++) {
+            long cur = (long) SLOT.getOpaque(data, idx);
+            if (cur == MISS) {
+                if (victimWorth > Integer.MIN_VALUE) {     // first empty slot, unless the key is found further on
+                    victim = idx;
+                    victimWorth = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if (((long) SLOT.getOpaque(keys, idx) ^ cur) == key) {
+                if (depth >= depth(cur) || generation(cur) != gen) {   // keep deeper entries of this search
+                    // a result without a best move keeps the move we already know
+                    if (best == PackedMove.NONE) best = move(cur);
+                    write(keys, data, idx, key, pack(score, depth, type, best, gen));
+                }
+                return;
+            }
+            int worth = depth(cur) - AGE_WEIGHT * ((gen - generation(cur)) & GENERATION_MASK);
+            if (worth < victimWorth) {
+                victim = idx;
+                victimWorth = worth;
+            }
         }
+
+        write(keys, data, victim, key, pack(score, depth, type, best, gen));
+    }
+
+    // two independent words; a reader that sees only one of them fails the key check
+    private static void write(long[] keys, long[] data, int idx, long key, long entry) {
+        SLOT.setOpaque(keys, idx, key ^ entry);
+        SLOT.setOpaque(data, idx, entry);
+    }
+
+    /**
+     * Allocation-free lookup used by the search.
+     *
+     * @return the packed entry (decode with {@link #score}, {@link #depth}, {@link #type}, {@link #move}) or {@link #MISS}
+     */
+    public long probe(long key) {
+        long[] keys = this.keys;
+        long[] data = this.data;
+        int bucket = bucketOf(key);
+        for (int idx = bucket; idx < bucket + BUCKET_SIZE; idx++) {
+            long entry = (long) SLOT.getOpaque(data, idx);
+            // full key guards vs. collisions and vs. slots torn by a concurrent store
+            if (entry != MISS && ((long) SLOT.getOpaque(keys, idx) ^ entry) == key) return entry;
+        }
+        return MISS;
     }
 
     public TTEntry retrieve(long key) {
-        TTEntry e = table[indexOf(key)];
-        return (e != null && e.zobrist == key) ? e : null;  // guard vs. collision
+        long entry = probe(key);
+        if (entry == MISS) return null;
+        TTEntry e = new TTEntry();
+        e.zobrist = key;
+        e.score = score(entry);
+        e.depth = (short) depth(entry);
+        e.type = (byte) type(entry);
+        e.best = move(entry);
+        return e;
+    }
+
+    private static long pack(int score, int depth, int type, int best, int generation) {
+        int clampedDepth = Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, depth));
+        return (score & 0xFFFFFFFFL)
+                | ((long) (best & 0x7FFF) << MOVE_SHIFT)
+                | ((long) (type + 1) << TYPE_SHIFT)
+                | ((long) (clampedDepth & 0xFF) << DEPTH_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int depth(long entry) {
+        return (byte) (entry >>> DEPTH_SHIFT);
+    }
+
+    public static int type(long entry) {
+        return ((int) (entry >>> TYPE_SHIFT) & 3) - 1;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & 0x7FFF;
+    }
+
+    public static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
     }
 
     public void clear() {
-        Arrays.fill(table, null);  // cheap – reference array only
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, MISS);
     }
 
     public int size() {
         int count = 0;
-        for (TTEntry e : table) if (e != null) ++count;
+        for (long entry : data) if (entry != MISS) ++count;
         return count;
     }
-}
\ No newline at end of file
+}
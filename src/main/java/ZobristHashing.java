@@ -22,43 +22,60 @@ public class ZobristHashing {
         blueToMoveKey = random.nextLong();
     }
 
+    /**
+     * Computes the hash of a position from scratch. The search reads the incrementally updated key from
+     * {@link Board#getZobristHash()} instead; this method is kept to initialise that key and to verify it.
+     */
     public static long computeHash(Board board) {
         long hash = 0L;
 
         for (int sq = 0; sq < NUM_SQUARES; sq++) {
-            long bit = 1L << sq;
-            int pieceType = -1;
+            hash ^= squareKey(board, sq);
+        }
 
-            if ((board.getGuards() & bit) != 0) { // Is it a guard?
-                if ((board.getBlue() & bit) != 0) {
-                    pieceType = 0; // Blue Guard
-                } else if ((board.getRed() & bit) != 0) {
-                    pieceType = 1; // Red Guard
-                }
-            } else if ((board.getStack(0) & bit) != 0) { // Is it a regular piece?
-                int height = 0; // Actual height 1-7
-                for (int hIdx = 6; hIdx >= 0; hIdx--) {
-                    if (((board.getStack(hIdx) >> sq) & 1L) != 0) {
-                        height = hIdx + 1;
-                        break;
-                    }
-                }
+        if (board.getCurrentPlayer() == Player.BLUE) { // Conventionally, "blue to move"
+            hash ^= blueToMoveKey;
+        }
+        return hash;
+    }
 
-                if ((board.getBlue() & bit) != 0) {
-                    pieceType = 1 + height; // Blue Pawn H1-H7 (indices 2-8)
-                } else if ((board.getRed() & bit) != 0) {
-                    pieceType = 1 + 7 + height; // Red Pawn H1-H7 (indices 9-15)
+    /**
+     * @return the key of the piece standing on {@code sq}, or 0 if the square is empty.
+     * XOR-ing this out before and in after a move updates a hash for that square.
+     */
+    public static long squareKey(Board board, int sq) {
+        long bit = 1L << sq;
+        int pieceType = -1;
+
+        if ((board.getGuards() & bit) != 0) { // Is it a guard?
+            if ((board.getBlue() & bit) != 0) {
+                pieceType = 0; // Blue Guard
+            } else if ((board.getRed() & bit) != 0) {
+                pieceType = 1; // Red Guard
+            }
+        } else if ((board.getStack(0) & bit) != 0) { // Is it a regular piece?
+            int height = 0; // Actual height 1-7
+            for (int hIdx = 6; hIdx >= 0; hIdx--) {
+                if (((board.getStack(hIdx) >> sq) & 1L) != 0) {
+                    height = hIdx + 1;
+                    break;
                 }
             }
 
-            if (pieceType != -1) {
-                hash ^= zobristKeys[pieceType][sq];
+            if ((board.getBlue() & bit) != 0) {
+                pieceType = 1 + height; // Blue Pawn H1-H7 (indices 2-8)
+            } else if ((board.getRed() & bit) != 0) {
+                pieceType = 1 + 7 + height; // Red Pawn H1-H7 (indices 9-15)
             }
         }
 
-        if (board.getCurrentPlayer() == Player.BLUE) { // Conventionally, "blue to move"
-            hash ^= blueToMoveKey;
-        }
-        return hash;
+        return pieceType == -1 ? 0L : zobristKeys[pieceType][sq];
+    }
+
+    /**
+     * @return the key toggled whenever the side to move changes.
+     */
+    public static long sideToMoveKey() {
+        return blueToMoveKey;
     }
-}
\ No newline at end of file
+}
@@ -10,6 +10,12 @@ public class BoardTest {
         assertEquals(startBoard, fenBoard);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void fenWithMorePiecesThanAMoveListHoldsIsRejected() {
+        // 35 red stones, far more than the 7 of a real game
+        new Board("r7r7r7r7r72/7/7/3RG3/7/7/3BG3 r");
+    }
+
     @Test
     public void numPiecesTest() {
         Board board = new Board("7/7/3r1BG2/4r1RG1/7/7/7 r");
@@ -56,4 +62,42 @@ public class BoardTest {
         assertFalse(Board.checkplayerWon(board, Player.BLUE));
         assertFalse(Board.checkplayerWon(board, Player.RED));
     }
-}
\ No newline at end of file
+
+    private static int seeOf(Board board, String move) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.toMovePair(moves.get(i)).toMove().toAlgebraic().equals(move)) {
+                return board.staticExchange(moves.get(i));
+            }
+        }
+        throw new AssertionError(move + " is not legal");
+    }
+
+    @Test
+    public void staticExchangeCountsStonesOfTheExchange() {
+        // undefended tower
+        assertEquals(1, seeOf(new Board("3RG3/7/3r13/3b13/7/7/BG6 r"), "D5-D4-1"));
+        // D2 takes back: one stone each
+        assertEquals(0, seeOf(new Board("3RG3/7/3r13/3b13/7/3b23/BG6 r"), "D5-D4-1"));
+        // two stones thrown at a defended single stone
+        assertEquals(-1, seeOf(new Board("3RG3/3r23/7/3b13/7/3b23/BG6 r"), "D6-D4-2"));
+        // no capture
+        assertEquals(0, seeOf(new Board("3RG3/7/3r13/3b13/7/7/BG6 r"), "D5-E5-1"));
+    }
+
+    @Test
+    public void staticExchangeFollowsRays() {
+        // D5 moves off completely and lets D6 recapture, so blue does better not to take back
+        assertEquals(1, seeOf(new Board("3RG3/3r23/3r13/3b13/7/3b23/BG6 r"), "D5-D4-1"));
+        // the stone left on D5 blocks D6
+        assertEquals(0, seeOf(new Board("3RG3/3r23/3r23/3b13/7/3b23/BG6 r"), "D5-D4-1"));
+    }
+
+    @Test
+    public void staticExchangeOfGuards() {
+        assertEquals(Board.SEE_GUARD_VALUE, seeOf(new Board("3RG3/7/7/7/7/7/3r1BG3 r"), "D1-E1-1"));
+        // the red guard takes a stone and is taken from E3
+        assertEquals(1 - Board.SEE_GUARD_VALUE, seeOf(new Board("7/7/7/3RGb12/4b12/7/BG6 r"), "D4-E4-1"));
+    }
+}
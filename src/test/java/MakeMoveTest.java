@@ -39,6 +39,44 @@ public class MakeMoveTest {
         assertEquals(outcome, after);
     }
 
+    @Test
+    public void doMoveMatchesMakeMove() {
+        Board before = new Board("3RG3/7/7/7/4b11b1/3r41r11/3BG1b11 r");
+        MovePair move = new MovePair(10, 3, 1);
+        Board expected = Board.makeMove(move, before.copy());
+        before.doMove(move);
+        assertEquals(expected, before);
+    }
+
+    @Test
+    public void undoMoveRestoresPosition() {
+        Board board = new Board("3RG3/7/7/7/4b11b1/4r4r11/3BG1b11 r");
+        Board original = board.copy();
+        // stacking, capturing a stack and a reply by the other side
+        board.doMove(new MovePair(8, 9, 1));
+        board.doMove(new MovePair(4, 11, 1));
+        board.undoMove();
+        board.undoMove();
+        assertEquals(original, board);
+
+        board.doMove(new MovePair(9, 16, 1));
+        board.undoMove();
+        assertEquals(original, board);
+    }
+
+    @Test
+    public void nullMovePassesTurnAndUndoes() {
+        Board board = new Board("3RG3/7/7/7/4b11b1/4r4r11/3BG1b11 r");
+        Board original = board.copy();
+        long hash = board.getZobristHash();
+        board.doNullMove();
+        assertEquals(new Board("3RG3/7/7/7/4b11b1/4r4r11/3BG1b11 b"), board);
+        assertEquals(ZobristHashing.computeHash(board), board.getZobristHash());
+        board.undoMove();
+        assertEquals(original, board);
+        assertEquals(hash, board.getZobristHash());
+    }
+
     @Test
     public void testCheckPlayerWon() {
         Board before = new Board("7/7/7/7/7/7/5BG1 r");
@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 public class MoveGeneratorTest {
@@ -395,4 +396,138 @@ public class MoveGeneratorTest {
         }
         assertTrue("Under-height capture must be rejected", actual3.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void packedMovesMatchMovePairs() {
+        Board board = new Board("3RG3/2r11r12/1r21r11r21/7/3b33/2b11b12/1b21BG3 b");
+        List<MovePair> pairs = MoveGenerator.generateAllLegalMoves(board);
+        MoveList packed = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, packed);
+
+        assertEquals(pairs.size(), packed.size());
+        for (int i = 0; i < packed.size(); i++) {
+            int m = packed.get(i);
+            assertEquals(pairs.get(i), PackedMove.toMovePair(m));
+            assertEquals(m, PackedMove.of(pairs.get(i)));
+        }
+        assertNull(PackedMove.toMovePair(PackedMove.NONE));
+    }
+
+    @Test
+    public void moveGeneratorLongEastMovesFromWestFilesTest() {
+        // a blue tower of height 4 on B6 can move up to four squares east
+        Board board = new Board("7/1b45/7/2BG4/3r13/2r1RG3/7 b");
+        List<Move> generatedMoves = new ArrayList<>();
+        for (MovePair pair : MoveGenerator.generateAllLegalMoves(board)) {
+            generatedMoves.add(pair.toMove());
+        }
+        assertTrue(generatedMoves.containsAll(parseMoves(List.of("B6-C6-1", "B6-D6-2", "B6-E6-3", "B6-F6-4"))));
+    }
+
+    @Test
+    public void moveDoesntJumpChecksSingleMoves() {
+        Board board = new Board("7/3RG3/7/3r23/3b13/3BG3/7 r");
+        // D4 -> D2 would have to jump over the blue tower on D3
+        MovePair blocked = new MovePair(24, 10, 2);
+        MovePair free = new MovePair(24, 26, 2);
+        assertFalse(MoveGenerator.moveDoesntJump(PackedMove.of(blocked), board));
+        assertTrue(MoveGenerator.moveDoesntJump(PackedMove.of(free), board));
+        // not on one line
+        assertFalse(MoveGenerator.moveDoesntJump(PackedMove.encode(24, 32, 2), board));
+    }
+
+    @Test
+    public void capturesMatchFilteredLegalMoves() {
+        // random games from the start position; at every position the capture generator must return exactly the legal
+        // moves landing on an enemy piece, in generation order
+        Random rnd = new Random(19);
+        MoveList all = new MoveList();
+        MoveList captures = new MoveList();
+        for (int game = 0; game < 50; game++) {
+            Board board = new Board(Perft.START_FEN);
+            for (int ply = 0; ply < 60; ply++) {
+                MoveGenerator.generateAllLegalMoves(board, all);
+                if (all.isEmpty() || Board.checkplayerWon(board, Player.RED) || Board.checkplayerWon(board, Player.BLUE)) break;
+                MoveGenerator.generateCaptures(board, captures);
+
+                long enemy = board.getCurrentPlayer() == Player.RED ? board.getBlue() : board.getRed();
+                int expected = 0;
+                for (int i = 0; i < all.size(); i++) {
+                    int m = all.get(i);
+                    if ((enemy & (1L << PackedMove.to(m))) != 0) {
+                        assertEquals("game " + game, m, captures.get(expected++));
+                    }
+                }
+                assertEquals("game " + game, expected, captures.size());
+                board.doMove(all.get(rnd.nextInt(all.size())));
+            }
+        }
+    }
+
+    @Test
+    public void quietMovesAndCapturesSplitTheLegalMoves() {
+        Random rnd = new Random(23);
+        MoveList all = new MoveList();
+        MoveList quiets = new MoveList();
+        for (int game = 0; game < 50; game++) {
+            Board board = new Board(Perft.START_FEN);
+            for (int ply = 0; ply < 60; ply++) {
+                MoveGenerator.generateAllLegalMoves(board, all);
+                if (all.isEmpty() || Board.checkplayerWon(board, Player.RED) || Board.checkplayerWon(board, Player.BLUE)) break;
+                MoveGenerator.generateQuietMoves(board, quiets);
+
+                long enemy = board.getCurrentPlayer() == Player.RED ? board.getBlue() : board.getRed();
+                int expected = 0;
+                for (int i = 0; i < all.size(); i++) {
+                    int m = all.get(i);
+                    if ((enemy & (1L << PackedMove.to(m))) == 0) {
+                        assertEquals("game " + game, m, quiets.get(expected++));
+                    }
+                }
+                assertEquals("game " + game, expected, quiets.size());
+                board.doMove(all.get(rnd.nextInt(all.size())));
+            }
+        }
+    }
+
+    @Test
+    public void isLegalAcceptsExactlyTheGeneratedMoves() {
+        // every from/to/height combination, including the squares 49-63 a corrupt TT move could name
+        Random rnd = new Random(29);
+        MoveList all = new MoveList();
+        for (int game = 0; game < 20; game++) {
+            Board board = new Board(Perft.START_FEN);
+            for (int ply = 0; ply < 40; ply++) {
+                MoveGenerator.generateAllLegalMoves(board, all);
+                if (all.isEmpty() || Board.checkplayerWon(board, Player.RED) || Board.checkplayerWon(board, Player.BLUE)) break;
+                for (int from = 0; from < 64; from++) {
+                    for (int to = 0; to < 64; to++) {
+                        for (int height = 0; height < 8; height++) {
+                            int m = PackedMove.encode(from, to, height);
+                            assertEquals("game " + game + " " + from + "-" + to + "-" + height,
+                                    all.indexOf(m) >= 0, MoveGenerator.isLegal(board, m));
+                        }
+                    }
+                }
+                board.doMove(all.get(rnd.nextInt(all.size())));
+            }
+        }
+    }
+
+    @Test
+    public void movablePiecesAreTheOriginsOfTheLegalMoves() {
+        Random rnd = new Random(3);
+        MoveList moves = new MoveList();
+        for (int game = 0; game < 30; game++) {
+            Board board = new Board(Perft.START_FEN);
+            for (int ply = 0; ply < 60; ply++) {
+                MoveGenerator.generateAllLegalMoves(board, moves);
+                long origins = 0L;
+                for (int i = 0; i < moves.size(); i++) origins |= 1L << PackedMove.from(moves.get(i));
+                assertEquals("game " + game + " ply " + ply, origins, MoveGenerator.movablePieces(board));
+                if (moves.isEmpty() || Board.checkplayerWon(board, Player.RED) || Board.checkplayerWon(board, Player.BLUE)) break;
+                board.doMove(moves.get(rnd.nextInt(moves.size())));
+            }
+        }
+    }
+}
@@ -247,4 +247,106 @@ public class MoveOrderingTest {
 
         System.out.println("[DEBUG_LOG] Killer moves at different plies test passed successfully");
     }
+
+    private static int find(MoveList moves, String move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.toMovePair(moves.get(i)).toMove().toAlgebraic().equals(move)) return moves.get(i);
+        }
+        throw new AssertionError(move + " is not in the list");
+    }
+
+    @Test
+    public void testStagedOrdering() {
+        // C4xD4 wins the exchange (D6 takes back after D2), D6xD4 with two stones loses one
+        Board board = new Board("3RG3/3r23/7/2r1b13/7/3b23/BG6 r");
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, moves);
+        int ttMove = find(moves, "C4-B4-1");
+        int killer = find(moves, "D6-E6-1");
+        int goodCapture = find(moves, "C4-D4-1");
+        int badCapture = find(moves, "D6-D4-2");
+
+        SearchContext ctx = new SearchContext(0);
+        ctx.updateKillerMove(killer, 3);
+        MoveOrdering.orderMovesStaged(moves, board, ttMove, 3, ctx);
+
+        assertEquals("TT move first", ttMove, moves.get(0));
+        assertEquals("good capture second", goodCapture, moves.get(1));
+        assertEquals("killer after the captures", killer, moves.get(2));
+        assertEquals("losing capture last", badCapture, moves.get(moves.size() - 1));
+    }
+
+    @Test
+    public void testStagedOrderingByHistory() {
+        Board board = new Board("3RG3/3r23/7/2r1b13/7/3b23/BG6 r");
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, moves);
+        int often = find(moves, "D6-F6-2");
+        int once = find(moves, "C4-C3-1");
+
+        SearchContext ctx = new SearchContext(0);
+        ctx.updateHistory(true, once, SearchContext.historyBonus(2));
+        ctx.updateHistory(true, often, SearchContext.historyBonus(2));
+        ctx.updateHistory(true, often, SearchContext.historyBonus(1));
+        // blue's history does not count for red
+        ctx.updateHistory(false, once, SearchContext.historyBonus(5));
+        MoveOrdering.orderMovesStaged(moves, board, PackedMove.NONE, 0, ctx);
+
+        // after the good capture come the quiet moves, best history first
+        assertEquals(often, moves.get(1));
+        assertEquals(once, moves.get(2));
+    }
+
+    @Test
+    public void testStagedOrderingByCounterMove() {
+        Board board = new Board("3RG3/3r23/7/2r1b13/7/3b23/BG6 r");
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, moves);
+        int killer = find(moves, "D6-E6-1");
+        int counter = find(moves, "C4-C3-1");
+        int history = find(moves, "D6-F6-2");
+        MoveList blueMoves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(new Board("3RG3/3r23/7/2r1b13/7/3b23/BG6 b"), blueMoves);
+        int blueMove = find(blueMoves, "D4-E4-1");
+
+        SearchContext ctx = new SearchContext(0);
+        ctx.updateKillerMove(killer, 3);
+        ctx.updateHistory(true, history, SearchContext.historyBonus(6));
+        // blue played D4-E4 at ply 2, red refuted it with C4-C3 at ply 3
+        ctx.setMoveAt(2, blueMove);
+        ctx.updateCounterMove(true, 3, counter);
+        MoveOrdering.orderMovesStaged(moves, board, PackedMove.NONE, 3, ctx);
+
+        assertEquals("good capture first", find(moves, "C4-D4-1"), moves.get(0));
+        assertEquals(killer, moves.get(1));
+        assertEquals("countermove between killer and history", counter, moves.get(2));
+        assertEquals(history, moves.get(3));
+        assertEquals(MoveOrdering.STAGE_COUNTERMOVE, MoveOrdering.stageOf(moves.getScore(2)));
+        assertEquals(MoveOrdering.STAGE_QUIET, MoveOrdering.stageOf(moves.getScore(3)));
+
+        // after another move of blue there is no countermove
+        ctx.setMoveAt(2, find(blueMoves, "A1-B1-1"));
+        MoveOrdering.orderMovesStaged(moves, board, PackedMove.NONE, 3, ctx);
+        assertEquals(history, moves.get(2));
+    }
+
+    @Test
+    public void historyGravityKeepsScoresBounded() {
+        Board board = new Board("3RG3/3r23/7/2r1b13/7/3b23/BG6 r");
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, moves);
+        int move = find(moves, "D6-F6-2");
+
+        SearchContext ctx = new SearchContext(0);
+        for (int i = 0; i < 10000; i++) {
+            ctx.updateHistory(true, move, SearchContext.historyBonus(20));
+        }
+        int saturated = ctx.historyScore(true, move);
+        assertTrue(saturated > 0 && saturated <= SearchContext.HISTORY_MAX);
+        // the same number of maluses would not even halve a plain sum, with gravity they pull it far below
+        for (int i = 0; i < 20; i++) {
+            ctx.updateHistory(true, move, -SearchContext.historyBonus(20));
+        }
+        assertTrue(ctx.historyScore(true, move) < saturated / 2);
+    }
 }
@@ -0,0 +1,107 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MovePickerTest {
+
+    private static int find(MoveList moves, String move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.toMovePair(moves.get(i)).toMove().toAlgebraic().equals(move)) return moves.get(i);
+        }
+        throw new AssertionError(move + " is not in the list");
+    }
+
+    @Test
+    public void picksTheStagedOrderLazily() {
+        // same position as MoveOrderingTest.testStagedOrdering
+        Board board = new Board("3RG3/3r23/7/2r1b13/7/3b23/BG6 r");
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, moves);
+        int ttMove = find(moves, "C4-B4-1");
+        int killer = find(moves, "D6-E6-1");
+        int goodCapture = find(moves, "C4-D4-1");
+        int badCapture = find(moves, "D6-D4-2");
+
+        SearchContext ctx = new SearchContext(0);
+        ctx.updateKillerMove(killer, 3);
+        MovePicker picker = new MovePicker();
+        picker.reset(board, ttMove, 3, ctx);
+
+        assertEquals(ttMove, picker.next());
+        assertEquals(MoveOrdering.STAGE_TT, picker.stage());
+        assertEquals(goodCapture, picker.next());
+        assertEquals(killer, picker.next());
+        assertEquals(MoveOrdering.STAGE_KILLER, picker.stage());
+        assertEquals("quiet moves not generated before the killers are through", 0, ctx.quietGenerations);
+
+        int last = PackedMove.NONE;
+        for (int m = picker.next(); m != PackedMove.NONE; m = picker.next()) last = m;
+        assertEquals("losing capture last", badCapture, last);
+        assertEquals(MoveOrdering.STAGE_BAD_CAPTURE, picker.stage());
+        assertEquals(1, ctx.quietGenerations);
+        assertEquals(moves.size(), picker.pickedMoves().size());
+    }
+
+    @Test
+    public void illegalTableMovesAreSkipped() {
+        Board board = new Board("3RG3/3r23/7/2r1b13/7/3b23/BG6 r");
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(board, moves);
+
+        SearchContext ctx = new SearchContext(0);
+        // a blue move as killer and a tower move of the wrong height as TT move, e.g. from another position
+        int blueMove = PackedMove.encode(6, 7, 1);
+        int step = find(moves, "C4-C3-1");
+        int tooHigh = PackedMove.encode(PackedMove.from(step), 2 * PackedMove.to(step) - PackedMove.from(step), 2);
+        ctx.updateKillerMove(blueMove, 0);
+        MovePicker picker = new MovePicker();
+        picker.reset(board, tooHigh, 0, ctx);
+        for (int m = picker.next(); m != PackedMove.NONE; m = picker.next()) {
+            assertTrue(moves.indexOf(m) >= 0);
+        }
+        assertEquals(moves.size(), picker.pickedMoves().size());
+    }
+
+    @Test
+    public void yieldsEveryLegalMoveOnceInStagedOrder() {
+        // random games with random TT moves, killers and countermoves: the picker has to yield the legal moves exactly
+        // once, and stage by stage in the order of the full staged sort
+        Random rnd = new Random(31);
+        MoveList all = new MoveList();
+        MoveList sorted = new MoveList();
+        MovePicker picker = new MovePicker();
+        for (int game = 0; game < 40; game++) {
+            SearchContext ctx = new SearchContext(0);
+            Board board = new Board(Perft.START_FEN);
+            for (int ply = 0; ply < 50; ply++) {
+                MoveGenerator.generateAllLegalMoves(board, all);
+                if (all.isEmpty() || Board.checkplayerWon(board, Player.RED) || Board.checkplayerWon(board, Player.BLUE)) break;
+                int ttMove = rnd.nextBoolean() ? all.get(rnd.nextInt(all.size())) : rnd.nextInt(1 << 15);
+                ctx.updateKillerMove(all.get(rnd.nextInt(all.size())), ply);
+                ctx.updateKillerMove(rnd.nextInt(1 << 15), ply);
+                ctx.updateCounterMove(board.getCurrentPlayer() == Player.RED, ply, all.get(rnd.nextInt(all.size())));
+
+                sorted.clear();
+                for (int i = 0; i < all.size(); i++) sorted.add(all.get(i));
+                MoveOrdering.orderMovesStaged(sorted, board, ttMove, ply, ctx);
+                picker.reset(board, ttMove, ply, ctx);
+                for (int i = 0; i < sorted.size(); i++) {
+                    int m = picker.next();
+                    assertTrue("game " + game + " ply " + ply, all.indexOf(m) >= 0);
+                    assertEquals("game " + game + " ply " + ply, MoveOrdering.stageOf(sorted.getScore(i)), picker.stage());
+                }
+                assertEquals(PackedMove.NONE, picker.next());
+                MoveList picked = picker.pickedMoves();
+                for (int i = 0; i < picked.size(); i++) {
+                    assertEquals("picked once", i, picked.indexOf(picked.get(i)));
+                }
+
+                int move = all.get(rnd.nextInt(all.size()));
+                ctx.setMoveAt(ply, move);
+                board.doMove(move);
+            }
+        }
+    }
+}
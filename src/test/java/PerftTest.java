@@ -0,0 +1,77 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+public class PerftTest {
+    // FEN, perft(1) ... perft(5); start position plus the positions used in MoveGeneratorTest
+    private static final Object[][] REFERENCE = {
+            {"3RG1r21/7/3r22r3/7/3b53/7/1b21BG3 b", 16L, 330L, 6176L, 126749L, 2576588L},
+            {"3RG1r21/7/3r53/7/3b53/7/1b21BG3 r", 15L, 227L, 4026L, 72088L, 1405923L},
+            {"3RG3/1r25/7/3r3b42/1b1BG4/4b12/7 r", 17L, 297L, 5158L, 100616L, 1759346L},
+            {"3RG3/2r11r12/1r21r11r21/7/3b33/2b11b12/1b21BG3 b", 24L, 692L, 16260L, 445030L, 10369581L},
+            {"3RG3/7/3r13/3b13/7/7/3BG3 r", 7L, 45L, 284L, 1890L, 13092L},
+            {"3RG3/7/7/7/4b11b1/4r4r11/3BG1b11 b", 12L, 168L, 1921L, 29130L, 325974L},
+            {"3RG3/7/7/7/7/2r1b23/2r31BG3 r", 11L, 92L, 1139L, 9512L, 124760L},
+            {"3RG3/7/7/7/7/7/3r1BG3 r", 6L, 15L, 87L, 283L, 1723L},
+            {"7/1b44b3/7/2BG4/3r13/2r1RG3/7 r", 8L, 147L, 1468L, 27259L, 275802L},
+            {"7/1b45/7/2BG4/3r13/2r1RG3/7 b", 14L, 111L, 1348L, 13349L, 173611L},
+            {"7/3RG3/7/3r23/3b13/3BG3/7 r", 10L, 54L, 576L, 4085L, 43515L},
+            {"7/3RG3/7/3r23/7/3BG3/7 r", 11L, 40L, 440L, 1616L, 17441L},
+            {"r1r11RG1r1r1/2r11r12/3r13/7/3b13/2b11b12/b1b11BG1b1b1 r", 25L, 625L, 14896L, 354946L, 8256952L},
+            {"r1r11RG3/6r1/3r11r21/7/3b23/1b15/b12BG1b1b1 b", 21L, 458L, 9539L, 201623L, 4172663L},
+    };
+
+    private static final int MAX_CHECKED_DEPTH = 4;
+
+    @Test
+    public void perftMatchesReferenceCounts() {
+        for (Object[] row : REFERENCE) {
+            String fen = (String) row[0];
+            for (int depth = 1; depth <= MAX_CHECKED_DEPTH; depth++) {
+                assertEquals(fen + " depth " + depth, (long) row[depth], Perft.perft(new Board(fen), depth));
+            }
+        }
+    }
+
+    @Test
+    public void bulkCountingMatchesReferenceCounts() {
+        for (Object[] row : REFERENCE) {
+            String fen = (String) row[0];
+            for (int depth = 1; depth <= MAX_CHECKED_DEPTH; depth++) {
+                assertEquals(fen + " depth " + depth, (long) row[depth], Perft.perftBulk(new Board(fen), depth));
+            }
+        }
+    }
+
+    @Test
+    public void parallelPerftMatchesReferenceCountsAtDepth5() {
+        for (Object[] row : REFERENCE) {
+            String fen = (String) row[0];
+            assertEquals(fen + " depth 5", (long) row[5], Perft.perftParallel(new Board(fen), 5));
+        }
+    }
+
+    @Test
+    public void divideSumsUpToPerft() {
+        Board board = new Board(Perft.START_FEN);
+        Map<String, Long> divide = Perft.divide(board, 3);
+        assertEquals(25, divide.size());
+        long total = 0;
+        for (long nodes : divide.values()) {
+            total += nodes;
+        }
+        assertEquals(14896L, total);
+        assertEquals(new Board(Perft.START_FEN), board);
+    }
+
+    @Test
+    public void perftLeavesBoardUnchanged() {
+        Board board = new Board("7/1b44b3/7/2BG4/3r13/2r1RG3/7 r");
+        long hash = board.getZobristHash();
+        Perft.perft(board, 3);
+        assertEquals(hash, board.getZobristHash());
+        assertEquals(new Board("7/1b44b3/7/2BG4/3r13/2r1RG3/7 r"), board);
+    }
+}
@@ -22,6 +22,21 @@ public class PickMoveVersionTest {
         startTime = System.currentTimeMillis();
         MovePair bestMovePVS = AI.pickMovePVS(board);
     }
+    @Test
+    public void lazySmpReturnsLegalMove() {
+        Board board = new Board("7/6r3/1RG5/3b43/1r25/7/2BG3r1 r");
+        AI.setThreads(3);
+        try {
+            AI.resetCounters();
+            AI.clearTT();
+            MovePair bestMove = AI.pickMove(board);
+            assertTrue(MoveGenerator.generateAllLegalMoves(board).contains(bestMove));
+            assertTrue("helpers searched", AI.helperNodesVisited > 0);
+        } finally {
+            AI.setThreads(1);
+        }
+    }
+
     @Test
     public void comparePVStoMinimax(){
         int depth = 4;
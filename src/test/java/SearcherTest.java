@@ -0,0 +1,175 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SearcherTest {
+
+    private static Searcher quietSearcher() {
+        Searcher searcher = new Searcher(1, 1);
+        searcher.setVerbose(false);
+        return searcher;
+    }
+
+    @Test
+    public void searchersDoNotShareState() {
+        Board board = new Board("7/6r3/1RG5/3b43/1r25/7/2BG3r1 r");
+        Searcher first = quietSearcher();
+        Searcher second = quietSearcher();
+
+        first.pickMoveTestVersion(board, 2);
+        assertTrue(first.nodesVisited > 0);
+        assertEquals("second searcher untouched", 0, second.nodesVisited);
+
+        // a second search on the same position is served from the first searcher's table only
+        first.pickMoveTestVersion(board, 2);
+        long warmHits = first.ttHits;
+        second.pickMoveTestVersion(board, 2);
+        assertTrue(warmHits > second.ttHits);
+    }
+
+    @Test
+    public void searchersRunConcurrently() throws Exception {
+        String[] fens = {Perft.START_FEN, "7/6r3/1RG5/3b43/1r25/7/2BG3r1 r", "3RG3/7/7/3r33/7/7/3BG3 b"};
+        ExecutorService pool = Executors.newFixedThreadPool(fens.length);
+        try {
+            List<Future<MovePair>> results = new ArrayList<>();
+            for (String fen : fens) {
+                Board board = new Board(fen);
+                results.add(pool.submit(() -> quietSearcher().pickMoveTestVersion(board, 2)));
+            }
+            for (int i = 0; i < fens.length; i++) {
+                Board board = new Board(fens[i]);
+                assertTrue(fens[i], MoveGenerator.generateAllLegalMoves(board).contains(results.get(i).get()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void ybwcFindsWinningCapture() {
+        Board board = new Board();
+        long redTower = 1L << 10;   // D2
+        long blueGuard = 1L << 3;   // D1
+        board.setRed(redTower);
+        board.setBlue(blueGuard);
+        board.setGuards(blueGuard);
+        board.setStack(0, redTower | blueGuard);
+
+        Searcher searcher = new Searcher(1, 4);
+        searcher.setVerbose(false);
+        try {
+            assertEquals("D2-D1-1", searcher.pickMoveYBWC(board, 2).toMove().toAlgebraic());
+        } finally {
+            searcher.setThreads(1);
+        }
+    }
+
+    @Test
+    public void ybwcSplitsAndReturnsLegalMove() {
+        Board board = new Board(Perft.START_FEN);
+        Searcher searcher = new Searcher(1, 4);
+        searcher.setVerbose(false);
+        try {
+            MovePair move = searcher.pickMoveYBWC(board, 3);
+            assertTrue(MoveGenerator.generateAllLegalMoves(board).contains(move));
+            assertTrue("younger brothers were searched as tasks", searcher.helperNodesVisited > 0);
+            assertEquals("root board untouched", new Board(Perft.START_FEN), board);
+        } finally {
+            searcher.setThreads(1);
+        }
+    }
+
+    @Test
+    public void aspirationWindowsKeepScoreAndMove() {
+        for (String fen : new String[]{Perft.START_FEN, "7/6r3/1RG5/3b43/1r25/7/2BG3r1 b"}) {
+            // futility margins are measured from the window bounds, with them a narrow window may settle on another move
+            Searcher full = quietSearcher();
+            full.setFutilityPruning(false);
+            full.setAspirationWindow(0);
+            MovePair expected = full.pickMoveTestVersion(new Board(fen), 3);
+            assertEquals(0, full.aspirationFailsHigh + full.aspirationFailsLow);
+
+            // a window of one point fails in nearly every iteration and has to widen until it holds the score
+            Searcher narrow = quietSearcher();
+            narrow.setFutilityPruning(false);
+            narrow.setAspirationWindow(1);
+            assertEquals(fen, expected, narrow.pickMoveTestVersion(new Board(fen), 3));
+            assertEquals(fen, full.lastScore, narrow.lastScore);
+            assertTrue(fen, narrow.aspirationFailsHigh + narrow.aspirationFailsLow > 0);
+        }
+    }
+
+    @Test
+    public void nullMovePruningPrunesAndCanBeSwitchedOff() {
+        Board board = new Board("3RG3/2r11r12/1r21r11r21/7/3b33/2b11b12/1b21BG3 b");
+        Searcher plain = quietSearcher();
+        plain.setNullMovePruning(false);
+        MovePair plainMove = plain.pickMoveTestVersion(board, 4);
+        assertEquals(0, plain.nullMoveCutoffs);
+
+        Searcher pruning = quietSearcher();
+        pruning.setNullMovePruning(true);
+        MovePair move = pruning.pickMoveTestVersion(board, 4);
+        assertTrue(MoveGenerator.generateAllLegalMoves(board).contains(move));
+        assertTrue("null move cut off nodes", pruning.nullMoveCutoffs > 0);
+        assertTrue("fewer nodes than without null moves", pruning.nodesVisited < plain.nodesVisited);
+        assertNotNull(plainMove);
+    }
+
+    @Test
+    public void lateMoveReductionsReduceAndCanBeSwitchedOff() {
+        for (boolean pvs : new boolean[]{false, true}) {
+            Board board = new Board("3RG3/2r11r12/1r21r11r21/7/3b33/2b11b12/1b21BG3 b");
+            Searcher plain = quietSearcher();
+            plain.setLateMoveReductions(false);
+            MovePair plainMove = pvs ? plain.pickMovePVSTestVersion(board, 4) : plain.pickMoveTestVersion(board, 4);
+            assertEquals(0, plain.lmrReductions);
+
+            Searcher reducing = quietSearcher();
+            reducing.setLateMoveReductions(true);
+            MovePair move = pvs ? reducing.pickMovePVSTestVersion(board, 4) : reducing.pickMoveTestVersion(board, 4);
+            assertTrue(MoveGenerator.generateAllLegalMoves(board).contains(move));
+            assertTrue("late moves were reduced", reducing.lmrReductions > 0);
+            assertTrue("re-searches only after reductions", reducing.lmrReSearches <= reducing.lmrReductions);
+            // nodes of the last PVS iteration depend mostly on what earlier iterations left in the table
+            if (!pvs) assertTrue("fewer nodes than without reductions", reducing.nodesVisited < plain.nodesVisited);
+            assertNotNull(plainMove);
+        }
+    }
+
+    @Test
+    public void frontierPruningPrunesAndCanBeSwitchedOff() {
+        Board board = new Board("3RG3/2r11r12/1r21r11r21/7/3b33/2b11b12/1b21BG3 b");
+        Searcher plain = quietSearcher();
+        plain.setFutilityPruning(false);
+        MovePair plainMove = plain.pickMoveTestVersion(board, 4);
+        assertEquals(0, plain.futilityPrunes + plain.reverseFutilityCutoffs + plain.razorCutoffs);
+
+        Searcher pruning = quietSearcher();
+        pruning.setFutilityPruning(true);
+        MovePair move = pruning.pickMoveTestVersion(board, 4);
+        assertTrue(MoveGenerator.generateAllLegalMoves(board).contains(move));
+        assertTrue("quiet moves were skipped", pruning.futilityPrunes > 0);
+        assertTrue("reverse futility cut off nodes", pruning.reverseFutilityCutoffs > 0);
+        assertTrue("fewer nodes than without pruning", pruning.nodesVisited < plain.nodesVisited);
+        assertNotNull(plainMove);
+    }
+
+    @Test
+    public void quiescenceDeltaPrunesCaptures() {
+        // a midgame with captures on both sides; captures that cannot close the gap to the bound are skipped
+        Board board = new Board("3RG3/2r11r12/1r21r11r21/7/3b33/2b11b12/1b21BG3 b");
+        Searcher searcher = quietSearcher();
+        MovePair move = searcher.pickMoveTestVersion(board, 3);
+        assertTrue(MoveGenerator.generateAllLegalMoves(board).contains(move));
+        assertTrue(searcher.quiesceNodes > 0);
+        assertTrue("delta pruning skipped captures", searcher.deltaPrunes > 0);
+    }
+}
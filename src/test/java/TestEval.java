@@ -1,5 +1,9 @@
 import org.junit.Test;
 
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
 public class TestEval {
 
 //    @Test
@@ -46,4 +50,148 @@ public class TestEval {
         endtime = System.currentTimeMillis();
         System.out.println("Evaluating the endgame position 10000 times took " + (endtime - starttime) + "ms");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void exchangeValueBoundsTheStonesWon() {
+        assertEquals(0, Eval.exchangeValue(0));
+        for (int stones = 1; stones <= 7; stones++) {
+            // whether the stones come from one tower or from several
+            assertTrue(Eval.exchangeValue(stones) >= Eval.towerValue(stones));
+            assertTrue(Eval.exchangeValue(stones) >= stones * Eval.towerValue(1));
+        }
+        assertTrue(Eval.isWinScore(Eval.exchangeValue(Board.SEE_GUARD_VALUE)));
+    }
+
+    @Test
+    public void evaluateMatchesBothSidesOnRandomGames() {
+        // the incremental score has to survive doMove/undoMove, and evaluate has to stay evaluateSide(RED) - evaluateSide(BLUE)
+        Random rnd = new Random(11);
+        MoveList moves = new MoveList();
+        for (int game = 0; game < 50; game++) {
+            Board board = new Board(Perft.START_FEN);
+            int plies = 0;
+            for (; plies < 60; plies++) {
+                String where = "game " + game + " ply " + plies;
+                assertEquals(where, Eval.pieceSquareScore(board), board.getPieceSquareScore());
+                assertEquals(where, Eval.evaluateSide(board, Player.RED) - Eval.evaluateSide(board, Player.BLUE),
+                        Eval.evaluate(board));
+                MoveGenerator.generateAllLegalMoves(board, moves);
+                if (moves.isEmpty() || Board.checkplayerWon(board, Player.RED) || Board.checkplayerWon(board, Player.BLUE)) break;
+                board.doMove(moves.get(rnd.nextInt(moves.size())));
+            }
+            for (; plies > 0; plies--) board.undoMove();
+            assertEquals(Eval.pieceSquareScore(board), board.getPieceSquareScore());
+        }
+    }
+
+    @Test
+    public void windowedEvaluationBoundsTheExactScore() {
+        Random rnd = new Random(5);
+        MoveList moves = new MoveList();
+        for (int game = 0; game < 30; game++) {
+            Board board = new Board(Perft.START_FEN);
+            for (int ply = 0; ply < 60; ply++) {
+                int exact = Eval.evaluate(board);
+                for (int w = 0; w < 5; w++) {
+                    int alpha = exact + rnd.nextInt(401) - 200;
+                    int beta = alpha + 1 + rnd.nextInt(200);
+                    int score = Eval.evaluate(board, alpha, beta);
+                    if (exact > alpha && exact < beta) assertEquals(exact, score);
+                    else if (score <= alpha) assertTrue(exact <= score);
+                    else assertTrue(score >= beta && exact >= score);
+                }
+                MoveGenerator.generateAllLegalMoves(board, moves);
+                if (moves.isEmpty() || Board.checkplayerWon(board, Player.RED) || Board.checkplayerWon(board, Player.BLUE)) break;
+                board.doMove(moves.get(rnd.nextInt(moves.size())));
+            }
+        }
+    }
+
+    @Test
+    public void maskFeaturesMatchTheSquareScansOnRandomPositions() {
+        // the features used to scan the 49 squares one by one; the scans are kept below as reference. The corpus includes the
+        // final positions of the games, where a guard may be captured.
+        Random rnd = new Random(2024);
+        MoveList moves = new MoveList();
+        int positions = 0;
+        for (int game = 0; game < 2000; game++) {
+            Board board = new Board(Perft.START_FEN);
+            for (int ply = 0; ply < 80; ply++, positions++) {
+                for (Player side : Player.values()) {
+                    String where = "game " + game + " ply " + ply + " " + side;
+                    assertEquals(where, scanNumPieces(board, side), board.numPieces(side));
+                    assertEquals(where, scanCountInCenter(board, side), Eval.countInCenter(board, side));
+                    assertEquals(where, scanAlignedWithEnemyGuard(board, side), Eval.alignedWithEnemyGuard(board, side));
+                    assertEquals(where, scanCountBlockedTowers(board, side), Eval.countBlockedTowers(board, side));
+                    assertEquals(where, scanFriendsNearGuard(board, side), Eval.friendsNearGuard(board, side));
+                    assertEquals(where, scanEnemiesNearOurGuard(board, side), Eval.enemiesNearOurGuard(board, side));
+                }
+                MoveGenerator.generateAllLegalMoves(board, moves);
+                if (moves.isEmpty() || Board.checkplayerWon(board, Player.RED) || Board.checkplayerWon(board, Player.BLUE)) break;
+                board.doMove(moves.get(rnd.nextInt(moves.size())));
+            }
+        }
+        assertTrue(positions > 50000);
+    }
+
+    private static long own(Board b, Player side) {
+        return side == Player.RED ? b.getRed() : b.getBlue();
+    }
+
+    private static long other(Board b, Player side) {
+        return side == Player.RED ? b.getBlue() : b.getRed();
+    }
+
+    private static int scanNumPieces(Board b, Player side) {
+        int n = 0;
+        for (int i = 0; i < 7; i++)
+            for (int j = 0; j < 49; j++)
+                if (((b.getStack(i) & own(b, side)) >>> j & 1L) != 0) n++;
+        return n;
+    }
+
+    private static int scanCountInCenter(Board b, Player side) {
+        int cnt = 0;
+        for (int idx : new int[]{15, 16, 17, 22, 23, 24, 29, 30, 31}) if ((own(b, side) >> idx & 1L) != 0) cnt++;
+        return cnt;
+    }
+
+    private static int scanAlignedWithEnemyGuard(Board b, Player side) {
+        long enemyGuard = b.getGuards() & other(b, side);
+        if (enemyGuard == 0) return 0;
+        int g = Long.numberOfTrailingZeros(enemyGuard);
+        int aligned = 0;
+        for (int idx = 0; idx < 49; idx++)
+            if ((own(b, side) >> idx & 1L) != 0 && (idx / 7 == g / 7 || idx % 7 == g % 7)) aligned++;
+        return aligned;
+    }
+
+    private static int scanCountBlockedTowers(Board b, Player side) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMoves(b, moves);
+        long hasMove = 0L;
+        for (int i = 0; i < moves.size(); i++) hasMove |= 1L << PackedMove.from(moves.get(i));
+        int blocked = 0;
+        for (int idx = 0; idx < 49; idx++)
+            if ((own(b, side) >> idx & 1L) != 0 && (hasMove >> idx & 1L) == 0) blocked++;
+        return blocked;
+    }
+
+    private static int scanFriendsNearGuard(Board b, Player side) {
+        return scanNearOwnGuard(b, side, own(b, side));
+    }
+
+    private static int scanEnemiesNearOurGuard(Board b, Player side) {
+        return scanNearOwnGuard(b, side, other(b, side));
+    }
+
+    private static int scanNearOwnGuard(Board b, Player side, long pieces) {
+        long guard = b.getGuards() & own(b, side);
+        if (guard == 0) return 0;
+        int g = Long.numberOfTrailingZeros(guard);
+        int cnt = 0;
+        for (int idx = 0; idx < 49; idx++)
+            if ((pieces >> idx & 1L) != 0 && idx != g && Math.abs(idx / 7 - g / 7) + Math.abs(idx % 7 - g % 7) <= 2) cnt++;
+        return cnt;
+    }
+}
@@ -2,6 +2,9 @@ import org.junit.Test;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Unit tests for TranspositionTable.
  * Keeps each test focused on one observable behaviour.
@@ -26,7 +29,7 @@ public class TranspositionTableTest {
         assertEquals(42, e.score);
         assertEquals(5, e.depth);
         assertEquals(TranspositionTableArray.EXACT_SCORE, e.type);
-        assertEquals(DUMMY_MOVE, e.best);
+        assertEquals(DUMMY_MOVE, PackedMove.toMovePair(e.best));
     }
 
     @Test
@@ -60,6 +63,19 @@ public class TranspositionTableTest {
         assertEquals(TranspositionTableArray.UPPER_BOUND, e.type);
     }
 
+    @Test
+    //truncated quiescence results keep their negative depth, a complete depth 0 result replaces them
+    public void negativeDepthMarksTruncatedQuiescence() {
+        TranspositionTableArray tt = new TranspositionTableArray();
+        long key = 0x4242L;
+        tt.store(key, 30, (short) -1, (byte) TranspositionTableArray.EXACT_SCORE, DUMMY_MOVE);
+        assertEquals(-1, TranspositionTableArray.depth(tt.probe(key)));
+
+        tt.store(key, 20, (short) 0, (byte) TranspositionTableArray.EXACT_SCORE, DUMMY_MOVE);
+        assertEquals(0, TranspositionTableArray.depth(tt.probe(key)));
+        assertEquals(20, TranspositionTableArray.score(tt.probe(key)));
+    }
+
     @Test
     //clear() empties the table and resets size()"
     public void clearEmptiesTable() {
@@ -72,4 +88,141 @@ public class TranspositionTableTest {
         assertEquals(0, tt.size()); //Table must be empty after clear()
         assertNull(tt.retrieve(0x1L)); //Entries must be gone after clear()
     }
-}
\ No newline at end of file
+
+    @Test
+    //packed entries keep negative scores, every type and the move; a key mapping to the same slot is a miss
+    public void probeDecodesPackedEntry() {
+        TranspositionTableArray tt = new TranspositionTableArray();
+        long key = 0x7777L;
+        int move = PackedMove.of(new MovePair(48, 41, 7));
+
+        for (int type : new int[]{TranspositionTableArray.EXACT_SCORE, TranspositionTableArray.LOWER_BOUND, TranspositionTableArray.UPPER_BOUND}) {
+            tt.store(key, -123456, (short) (10 + type), (byte) type, move);
+            long entry = tt.probe(key);
+            assertEquals(-123456, TranspositionTableArray.score(entry));
+            assertEquals(10 + type, TranspositionTableArray.depth(entry));
+            assertEquals(type, TranspositionTableArray.type(entry));
+            assertEquals(move, TranspositionTableArray.move(entry));
+        }
+
+        long collidingKey = key + tt.capacity();
+        assertEquals(TranspositionTableArray.MISS, tt.probe(collidingKey));
+        assertNull(tt.retrieve(collidingKey));
+    }
+
+    /**
+     * i-th key of one bucket: all keys share the low bits that select the bucket.
+     */
+    private static long bucketKey(TranspositionTableArray tt, int i) {
+        return 0x55L + (long) i * tt.capacity();
+    }
+
+    @Test
+    //a bucket holds BUCKET_SIZE colliding keys, the next one evicts the shallowest
+    public void fullBucketEvictsShallowestEntry() {
+        TranspositionTableArray tt = new TranspositionTableArray();
+        for (int i = 0; i < TranspositionTableArray.BUCKET_SIZE; i++) {
+            tt.store(bucketKey(tt, i), i, (short) (5 + i), (byte) TranspositionTableArray.EXACT_SCORE, null);
+        }
+        for (int i = 0; i < TranspositionTableArray.BUCKET_SIZE; i++) {
+            assertEquals(i, tt.retrieve(bucketKey(tt, i)).score);
+        }
+
+        long newKey = bucketKey(tt, TranspositionTableArray.BUCKET_SIZE);
+        tt.store(newKey, 99, (short) 1, (byte) TranspositionTableArray.EXACT_SCORE, null);
+
+        assertEquals(99, tt.retrieve(newKey).score);
+        assertNull(tt.retrieve(bucketKey(tt, 0)));   // depth 5 was the shallowest
+        for (int i = 1; i < TranspositionTableArray.BUCKET_SIZE; i++) {
+            assertNotNull(tt.retrieve(bucketKey(tt, i)));
+        }
+    }
+
+    @Test
+    //entries of older searches are evicted before deeper entries of the current one
+    public void staleEntriesAreReplacedFirst() {
+        TranspositionTableArray tt = new TranspositionTableArray();
+        tt.store(bucketKey(tt, 0), 0, (short) 20, (byte) TranspositionTableArray.EXACT_SCORE, null);
+        for (int i = 0; i < 4; i++) {
+            tt.newSearch();
+        }
+        for (int i = 1; i < TranspositionTableArray.BUCKET_SIZE; i++) {
+            tt.store(bucketKey(tt, i), i, (short) 2, (byte) TranspositionTableArray.EXACT_SCORE, null);
+        }
+
+        tt.store(bucketKey(tt, TranspositionTableArray.BUCKET_SIZE), 99, (short) 2, (byte) TranspositionTableArray.EXACT_SCORE, null);
+
+        assertNull(tt.retrieve(bucketKey(tt, 0)));   // depth 20, but four searches old
+        assertEquals(99, tt.retrieve(bucketKey(tt, TranspositionTableArray.BUCKET_SIZE)).score);
+    }
+
+    @Test
+    //a shallower result replaces the same position when the stored entry is from an older search
+    public void staleEntryOfSameKeyIsOverwritten() {
+        TranspositionTableArray tt = new TranspositionTableArray();
+        long key = 0xABCDEFL;
+        tt.store(key, 50, (short) 7, (byte) TranspositionTableArray.EXACT_SCORE, DUMMY_MOVE);
+        tt.newSearch();
+        tt.store(key, -10, (short) 4, (byte) TranspositionTableArray.LOWER_BOUND, null);
+
+        TranspositionTableArray.TTEntry e = tt.retrieve(key);
+        assertEquals(-10, e.score);
+        assertEquals(4, e.depth);
+        assertEquals(DUMMY_MOVE, PackedMove.toMovePair(e.best));   // move of the old entry is kept
+    }
+
+    @Test
+    //sizes are rounded down to a power of two MiB, resize() reallocates and empties the table
+    public void resizeRoundsToPowerOfTwo() {
+        TranspositionTableArray tt = new TranspositionTableArray(3);
+        assertEquals(2, tt.sizeMb());
+        assertEquals(2 * (1 << 20) / 16, tt.capacity());
+        assertEquals(1, TranspositionTableArray.roundSizeMb(0));
+        assertEquals(64, TranspositionTableArray.roundSizeMb(100));
+
+        tt.store(0x1L, 7, (short) 1, (byte) TranspositionTableArray.EXACT_SCORE, null);
+        tt.resize(8);
+        assertEquals(8, tt.sizeMb());
+        assertNull(tt.retrieve(0x1L));
+        tt.store(0x1L, 7, (short) 1, (byte) TranspositionTableArray.EXACT_SCORE, null);
+        assertEquals(7, tt.retrieve(0x1L).score);
+    }
+
+    @Test
+    //threads storing and probing the same bucket concurrently never see an entry with the data of another key
+    public void concurrentAccessNeverReturnsForeignEntry() throws InterruptedException {
+        TranspositionTableArray tt = new TranspositionTableArray(1);
+        long[] keys = new long[16];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = bucketKey(tt, i);     // all in one bucket, so the threads keep overwriting each other
+        }
+        AtomicInteger foreign = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                Random rnd = new Random(seed);
+                for (int n = 0; n < 200_000; n++) {
+                    long key = keys[rnd.nextInt(keys.length)];
+                    if (rnd.nextBoolean()) {
+                        tt.store(key, scoreOf(key), (short) rnd.nextInt(20), (byte) TranspositionTableArray.EXACT_SCORE, PackedMove.NONE);
+                    } else {
+                        long entry = tt.probe(key);
+                        if (entry != TranspositionTableArray.MISS && TranspositionTableArray.score(entry) != scoreOf(key)) {
+                            foreign.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, foreign.get());
+    }
+
+    private static int scoreOf(long key) {
+        return (int) (key * 0x9E3779B97F4A7C15L >>> 32);
+    }
+}
@@ -1,5 +1,8 @@
 import org.junit.Test;
 
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
@@ -34,4 +37,30 @@ public class ZobristHashingTest {
         back.setCurrentPlayer(Player.RED);
         assertEquals(start, ZobristHashing.computeHash(back));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void incrementalHashMatchesFullRecompute() {
+        Random rnd = new Random(7);
+        for (int game = 0; game < 50; game++) {
+            Board board = new Board();
+            for (int ply = 0; ply < 60; ply++) {
+                List<MovePair> moves = MoveGenerator.generateAllLegalMoves(board);
+                if (moves.isEmpty() || Board.checkplayerWon(board, Player.RED) || Board.checkplayerWon(board, Player.BLUE)) {
+                    break;
+                }
+                board.doMove(moves.get(rnd.nextInt(moves.size())));
+                assertEquals(ZobristHashing.computeHash(board), board.getZobristHash());
+            }
+        }
+    }
+
+    @Test
+    public void undoMoveRestoresIncrementalHash() {
+        Board board = new Board();
+        long start = board.getZobristHash();
+        board.doMove(new MovePair(45, 38, 1));
+        assertNotEquals(start, board.getZobristHash());
+        board.undoMove();
+        assertEquals(start, board.getZobristHash());
+    }
+}